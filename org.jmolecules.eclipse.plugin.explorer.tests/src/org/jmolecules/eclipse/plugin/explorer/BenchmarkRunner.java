@@ -0,0 +1,56 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+class BenchmarkRunner {
+
+    private static final String[] PARAMETERS = { "packages", "types", "members", "density" };
+
+    @Test
+    void run() throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder() //
+            .include(ConceptBenchmarks.class.getName()) //
+            .addProfiler(GCProfiler.class) //
+            .resultFormat(ResultFormatType.JSON) //
+            .result(System.getProperty("benchmark.result", "target/benchmarks.json"));
+
+        // e.g. -Dbenchmark.types=100,1000 overrides the defaults of ConceptBenchmarks
+        for (String parameter : PARAMETERS) {
+            String values = System.getProperty("benchmark." + parameter);
+            if (values != null) {
+                options.param(parameter, values.split(","));
+            }
+        }
+
+        // the generated benchmark list is a resource of this fragment, not of the JMH bundle
+        Thread thread = Thread.currentThread();
+        ClassLoader classLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(BenchmarkRunner.class.getClassLoader());
+        try {
+            new Runner(options.build()).run();
+        } finally {
+            thread.setContextClassLoader(classLoader);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
+
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getChildren;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(0) // the Java model is only available inside the running platform
+public class ConceptBenchmarks {
+
+    @Param("20")
+    public int packages;
+
+    @Param("50")
+    public int types;
+
+    @Param("5")
+    public int members;
+
+    @Param({ "0.05", "0.5" })
+    public double density;
+
+    private SyntheticProject project;
+    private Path indexLocation;
+    private JMolecules jMolecules;
+    private TreeFactory treeFactory;
+    private TreeNode tree;
+
+    private List<IType> projectTypes;
+    private List<IJavaElement> lookups;
+    private int lookup;
+
+    @Setup(Level.Trial)
+    public void setUp() throws CoreException, IOException {
+        project = SyntheticProject.create("benchmarks", packages, types, members, density);
+        indexLocation = Files.createTempDirectory("concepts");
+        jMolecules = new JMolecules();
+        treeFactory = new TreeFactory(jMolecules, new ConceptIndex(indexLocation, jMolecules));
+        tree = treeFactory.create(project.getJavaProject(), new NullProgressMonitor());
+
+        projectTypes = stream(getChildren(project.getJavaProject())) //
+            .filter(JavaModelUtils::isSourcePackageFragmentRoot) //
+            .flatMap(r -> stream(getChildren((IPackageFragmentRoot) r))) //
+            .flatMap(p -> stream(getChildren((IPackageFragment) p))) //
+            .flatMap(u -> stream(getChildren((ICompilationUnit) u))) //
+            .filter(IType.class::isInstance) //
+            .map(IType.class::cast) //
+            .collect(toList());
+
+        lookups = new ArrayList<>(projectTypes);
+        Collections.shuffle(lookups, new Random(42));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws CoreException, IOException {
+        project.delete();
+        try (Stream<Path> files = Files.walk(indexLocation)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void expresses(Blackhole blackhole) {
+        AnalysisContext context = jMolecules.createContext(new NullProgressMonitor());
+        for (IType type : projectTypes) {
+            blackhole.consume(jMolecules.expresses(type, context));
+        }
+    }
+
+    @Benchmark
+    public TreeNode createWithoutIndex() {
+        // an empty index kept in memory, only the analysis is measured
+        return new TreeFactory(jMolecules, ConceptIndex.inMemory(jMolecules)).create(project.getJavaProject(),
+                new NullProgressMonitor());
+    }
+
+    @Benchmark
+    public TreeNode createWithIndex() {
+        return treeFactory.create(project.getJavaProject(), new NullProgressMonitor());
+    }
+
+    @Benchmark
+    public Optional<TreeNode> findNode() {
+        return tree.findNode(lookups.get(lookup++ % lookups.size()));
+    }
+
+    @Benchmark
+    public Concepts collectConcepts() {
+        return tree.collectConcepts();
+    }
+}
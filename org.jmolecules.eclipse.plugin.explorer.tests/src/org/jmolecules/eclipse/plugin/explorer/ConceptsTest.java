@@ -0,0 +1,83 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.DDD;
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.EVENTS;
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.ONION_ARCHITECTURE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+import org.junit.jupiter.api.Test;
+
+class ConceptsTest {
+
+    private final List<Concept> concepts = new JMolecules().getConcepts();
+
+    @Test
+    void sharesConceptsBetweenInstances() {
+        assertSame(concepts.get(0), new JMolecules().getConcepts().get(0));
+    }
+
+    @Test
+    void internsEqualSets() {
+        Concepts first = Concepts.of(List.of(concepts.get(0), concepts.get(3)));
+        Concepts second = Concepts.of(List.of(concepts.get(3), concepts.get(0)));
+
+        assertSame(first, second);
+        assertSame(Concepts.empty(), Concepts.of(List.of()));
+        assertSame(first, Concepts.of(first.getMask()));
+    }
+
+    @Test
+    void answersQueriesFromTheMask() {
+        Concept ddd = concepts.stream().filter(c -> c.getCategory() == DDD).findFirst().get();
+        Concept events = concepts.stream().filter(c -> c.getCategory() == EVENTS).findFirst().get();
+        Concepts source = Concepts.of(List.of(ddd, events));
+
+        assertEquals(2, source.size());
+        assertEquals(List.of(ddd, events), source.get());
+        assertTrue(source.contains(ddd));
+        assertFalse(Concepts.of(List.of(ddd)).contains(events));
+        assertEquals(Set.of(DDD, EVENTS), source.getCategories());
+        assertEquals(2, source.countCategories());
+        assertFalse(source.hasCategory(ONION_ARCHITECTURE));
+        assertTrue(Concepts.empty().isEmpty());
+    }
+
+    @Test
+    void mergesMasks() {
+        Concepts first = Concepts.of(List.of(concepts.get(0)));
+        Concepts second = Concepts.of(List.of(concepts.get(1)));
+
+        assertSame(Concepts.of(List.of(concepts.get(0), concepts.get(1))), first.merge(second));
+        assertSame(first, first.merge(Concepts.empty()));
+        assertSame(first, first.merge());
+    }
+
+    @Test
+    void rejectsUnknownBits() {
+        assertThrows(IllegalArgumentException.class, () -> Concepts.of(1L << concepts.size()));
+    }
+}
@@ -0,0 +1,220 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.JavaRuntime;
+
+class SyntheticProject {
+
+    static final String ANNOTATION = "org.jmolecules.ddd.annotation.Entity";
+    static final String INTERFACE = "org.jmolecules.ddd.types.AggregateRoot";
+    static final String MEMBER_ANNOTATION = "org.jmolecules.ddd.annotation.Identity";
+
+    // the jMolecules types live in a project of their own, so they are not part of the analyzed projects
+    private static final String JMOLECULES = "jmolecules";
+
+    private final IJavaProject javaProject;
+    private final int types;
+    private final int conceptTypes;
+
+    private SyntheticProject(IJavaProject javaProject, int types, int conceptTypes) {
+        this.javaProject = javaProject;
+        this.types = types;
+        this.conceptTypes = conceptTypes;
+    }
+
+    static SyntheticProject create(String name, int packages, int types, int members, double density)
+            throws CoreException {
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        IProject project = workspace.getRoot().getProject(name);
+
+        int[] conceptTypes = new int[1];
+        workspace.run(m -> {
+            IProject jMolecules = workspace.getRoot().getProject(JMOLECULES);
+            if (!jMolecules.exists()) {
+                IFolder src = javaProject(jMolecules);
+                JMolecules concepts = new JMolecules();
+                for (String annotation : concepts.getAnnotationNames()) {
+                    write(src, annotation, "public @interface " + simpleName(annotation) + " {\n}\n");
+                }
+                for (String type : concepts.getInterfaceNames()) {
+                    write(src, type, "public interface " + simpleName(type) + " {\n}\n");
+                }
+            }
+
+            if (project.exists()) {
+                project.delete(true, true, m);
+            }
+            IFolder src = javaProject(project, JavaCore.newProjectEntry(jMolecules.getFullPath()));
+
+            int index = 0;
+            for (int p = 0; p < packages; p++) {
+                for (int t = 0; t < types; t++, index++) {
+                    // spreads the concept types evenly over the project
+                    boolean expressing = (int) ((index + 1) * density) > (int) (index * density);
+                    String source = type("synthetic.p" + p, "Type" + t, members, expressing ? conceptTypes[0]++ : -1);
+                    write(src, "synthetic.p" + p + ".Type" + t, source);
+                }
+            }
+        }, new NullProgressMonitor());
+
+        return new SyntheticProject(JavaCore.create(project), packages * types, conceptTypes[0]);
+    }
+
+    // the declarations the analyses resolve differently, kept apart so the generated projects keep their counts
+    static SyntheticProject createEdgeCases(String name) throws CoreException {
+        SyntheticProject project = create(name, 0, 0, 0, 0);
+
+        ResourcesPlugin.getWorkspace().run(m -> {
+            project.write("synthetic.edge.context.package-info", "@BoundedContext\npackage synthetic.edge.context;\n\n"
+                    + "import org.jmolecules.ddd.annotation.BoundedContext;\n");
+            project.write("synthetic.edge.EventHandlers", "import org.jmolecules.event.annotation.*;\n\n"
+                    + "public class EventHandlers {\n    @DomainEventHandler\n"
+                    + "    public void on(Object event) {\n    }\n}\n");
+            project.write("synthetic.edge.Marker",
+                    "import org.jmolecules.ddd.annotation.Module;\n\n@Module\npublic @interface Marker {\n}\n");
+            project.write("synthetic.edge.NoModule",
+                    "import org.jmolecules.ddd.annotation.Module;\n\n@Module\npublic class NoModule {\n}\n");
+            project.write("org.jmolecules.ddd.annotation.SamePackage", "@Entity\npublic class SamePackage {\n}\n");
+            // shares the name of a concept annotation as prefix and lives in its package, but expresses no concept
+            project.write("org.jmolecules.ddd.annotation.EntityListener", "public @interface EntityListener {\n}\n");
+            project.write("synthetic.edge.Listened", "import org.jmolecules.ddd.annotation.EntityListener;\n\n"
+                    + "@EntityListener\npublic class Listened {\n}\n");
+            project.write("synthetic.edge.AbstractRoot", "public abstract class AbstractRoot implements " + INTERFACE
+                    + " {\n}\n");
+            project.write("synthetic.edge.ConcreteRoot", "public class ConcreteRoot extends AbstractRoot {\n}\n");
+            project.write("synthetic.edge.Root", "public interface Root extends " + INTERFACE + " {\n}\n");
+            project.write("synthetic.edge.RootImpl", "public class RootImpl implements Root {\n}\n");
+        }, new NullProgressMonitor());
+
+        return project;
+    }
+
+    IJavaProject getJavaProject() {
+        return javaProject;
+    }
+
+    int getTypes() {
+        return types;
+    }
+
+    int getConceptTypes() {
+        return conceptTypes;
+    }
+
+    // adds or replaces a source file of the project, e.g. to change a supertype between two analyses
+    void write(String fqcn, String body) throws CoreException {
+        write(javaProject.getProject().getFolder("src"), fqcn, body);
+    }
+
+    void delete() throws CoreException {
+        javaProject.getProject().delete(true, true, new NullProgressMonitor());
+    }
+
+    private static IFolder javaProject(IProject project, IClasspathEntry... dependencies) throws CoreException {
+        project.create(null);
+        project.open(null);
+
+        IProjectDescription description = project.getDescription();
+        description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+        project.setDescription(description, null);
+
+        IFolder src = project.getFolder("src");
+        src.create(true, true, null);
+
+        List<IClasspathEntry> classpath = new ArrayList<>();
+        classpath.add(JavaCore.newSourceEntry(src.getFullPath()));
+        classpath.addAll(List.of(dependencies));
+        classpath.add(JavaRuntime.getDefaultJREContainerEntry());
+
+        JavaCore.create(project).setRawClasspath(classpath.toArray(new IClasspathEntry[0]),
+                project.getFullPath().append("bin"), null);
+        return src;
+    }
+
+    private static String type(String packageName, String name, int members, int concept) {
+        StringBuilder source = new StringBuilder("package ").append(packageName).append(";\n\n");
+        // every other concept type is annotated, the others implement the concept interface
+        boolean annotated = concept >= 0 && concept % 2 == 0;
+        boolean implementing = concept >= 0 && !annotated;
+
+        if (concept >= 0) {
+            source.append(annotated ? "import " + ANNOTATION + ";\n" : "");
+            source.append("import ").append(MEMBER_ANNOTATION).append(";\n\n");
+        }
+
+        source.append(annotated ? "@" + simpleName(ANNOTATION) + "\n" : "");
+        source.append("public class ").append(name);
+        source.append(implementing ? " implements " + INTERFACE : "").append(" {\n");
+
+        for (int i = 0; i < members; i++) {
+            source.append(i == 0 && concept >= 0 ? "    @" + simpleName(MEMBER_ANNOTATION) + "\n" : "");
+            source.append("    private long field").append(i).append(";\n");
+        }
+        for (int i = 0; i < members; i++) {
+            source.append("    public long method").append(i).append("() {\n");
+            source.append("        return field").append(i).append(";\n    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static void write(IFolder src, String fqcn, String body) throws CoreException {
+        String packageName = fqcn.substring(0, fqcn.lastIndexOf('.'));
+
+        IContainer container = src;
+        for (String segment : packageName.split("\\.")) {
+            IFolder folder = container.getFolder(new Path(segment));
+            if (!folder.exists()) {
+                folder.create(true, true, null);
+            }
+            container = folder;
+        }
+
+        // package-info.java declares its own package after the package annotations
+        boolean declaring = body.startsWith("package ") || simpleName(fqcn).equals("package-info");
+        String source = declaring ? body : "package " + packageName + ";\n\n" + body;
+        IFile file = container.getFile(new Path(simpleName(fqcn) + ".java"));
+        if (file.exists()) {
+            file.setContents(new ByteArrayInputStream(source.getBytes(UTF_8)), IResource.FORCE, null);
+        } else {
+            file.create(new ByteArrayInputStream(source.getBytes(UTF_8)), IResource.FORCE, null);
+        }
+    }
+
+    private static String simpleName(String fqcn) {
+        return fqcn.substring(fqcn.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,121 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.stream.Collectors.toList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+// only run by the scaling profile, which passes e.g. -Dscaling.types=1000,10000,50000
+@EnabledIfSystemProperty(named = "scaling.types", matches = ".+")
+class TreeFactoryScalingTest {
+
+    // the cost per type of a larger workspace may exceed the one of the smallest workspace by this factor
+    private static final double GROWTH = Double.parseDouble(System.getProperty("scaling.growth", "2"));
+
+    private static final int TYPES_PER_PACKAGE = 100;
+
+    @Test
+    void costPerTypeStaysConstant() throws Exception {
+        List<Integer> sizes = Stream.of(System.getProperty("scaling.types").split(",")) //
+            .map(String::trim) //
+            .map(Integer::valueOf) //
+            .sorted() //
+            .collect(toList());
+
+        // the first run warms up the JIT and the Java model, the second one is the baseline of this JVM
+        measure(sizes.get(0));
+        Measurement baseline = measure(sizes.get(0));
+
+        for (int types : sizes.subList(1, sizes.size())) {
+            Measurement measurement = measure(types);
+            assertTrue(measurement.nanosPerType() <= GROWTH * baseline.nanosPerType(),
+                    () -> "Analyzing " + types + " types took " + measurement + ", " + sizes.get(0) + " types took "
+                            + baseline);
+            assertTrue(measurement.bytesPerType() <= GROWTH * baseline.bytesPerType(),
+                    () -> "The tree of " + types + " types retains " + measurement + ", the one of " + sizes.get(0)
+                            + " types " + baseline);
+        }
+    }
+
+    private static Measurement measure(int types) throws Exception {
+        SyntheticProject project = SyntheticProject.create("scaling-" + types,
+                Math.max(1, types / TYPES_PER_PACKAGE), Math.min(types, TYPES_PER_PACKAGE), 3, 0.05);
+        try {
+            JMolecules jMolecules = new JMolecules();
+            TreeFactory treeFactory = new TreeFactory(jMolecules, ConceptIndex.inMemory(jMolecules));
+
+            long memory = usedMemory();
+            long start = System.nanoTime();
+            TreeNode tree = treeFactory.create(project.getJavaProject(), new NullProgressMonitor());
+            long nanos = System.nanoTime() - start;
+            long bytes = usedMemory() - memory;
+
+            assertEquals(project.getConceptTypes(), countConceptTypes(tree));
+            return new Measurement(types, nanos, bytes);
+        } finally {
+            project.delete();
+        }
+    }
+
+    private static long countConceptTypes(TreeNode node) {
+        long own = node.getSource() instanceof IType && !node.getConcepts().isEmpty() ? 1 : 0;
+        return own + node.getChildren().stream().mapToLong(TreeFactoryScalingTest::countConceptTypes).sum();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        IntStream.range(0, 3).forEach(i -> System.gc());
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class Measurement {
+
+        private final int types;
+        private final long nanos;
+        private final long bytes;
+
+        Measurement(int types, long nanos, long bytes) {
+            this.types = types;
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        double nanosPerType() {
+            return (double) nanos / types;
+        }
+
+        // the tree is still referenced while measuring, a negative difference only stems from collected garbage
+        double bytesPerType() {
+            return (double) Math.max(bytes, 0) / types;
+        }
+
+        @Override
+        public String toString() {
+            return nanos / 1_000_000 + " ms and " + bytes + " bytes";
+        }
+    }
+}
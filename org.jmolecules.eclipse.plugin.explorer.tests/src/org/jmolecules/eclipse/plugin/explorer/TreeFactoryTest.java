@@ -0,0 +1,368 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.stream.Collectors.toList;
+
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.AST_SCAN;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.LAZY;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.PREFILTER;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.PROJECT_HIERARCHY;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.QUALIFIER;
+import static org.jmolecules.eclipse.plugin.explorer.SyntheticProject.INTERFACE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.jmolecules.eclipse.plugin.explorer.ElementLabels.ImageKey;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TreeFactoryTest {
+
+    private static SyntheticProject project;
+    private static SyntheticProject edgeCases;
+
+    private final JMolecules jMolecules = new JMolecules();
+    private final IEclipsePreferences preferences = InstanceScope.INSTANCE.getNode(QUALIFIER);
+
+    @TempDir
+    Path index;
+
+    @BeforeAll
+    static void createProject() throws Exception {
+        project = SyntheticProject.create("tree-factory", 4, 25, 3, 0.2);
+        edgeCases = SyntheticProject.createEdgeCases("tree-factory-edge-cases");
+    }
+
+    @AfterAll
+    static void deleteProject() throws Exception {
+        project.delete();
+        edgeCases.delete();
+    }
+
+    @AfterEach
+    void resetPreferences() throws Exception {
+        preferences.clear();
+    }
+
+    @Test
+    void detectsConceptsOfTypesAndMembers() {
+        preferences.putBoolean(PREFILTER, false);
+        Map<IJavaElement, Set<String>> concepts = analyze();
+
+        long types = concepts.keySet().stream().filter(IType.class::isInstance).count();
+        long fields = concepts.keySet().stream().filter(IField.class::isInstance).count();
+        assertEquals(project.getConceptTypes(), types);
+        assertEquals(project.getConceptTypes(), fields);
+
+        concepts.forEach((element, names) -> {
+            if (element instanceof IType) {
+                assertTrue(names.equals(Set.of("Entity")) || names.equals(Set.of("AggregateRoot")), names::toString);
+            } else {
+                assertEquals(Set.of("Identity"), names);
+            }
+        });
+    }
+
+    @Test
+    void detectsConceptsOfEdgeCases() throws Exception {
+        preferences.putBoolean(PREFILTER, false);
+        assertEquals(edgeCaseConcepts(), analyze(edgeCases.getJavaProject()));
+    }
+
+    @Test
+    void ignoresAnnotationsNamedLikeAConcept() throws Exception {
+        preferences.putBoolean(PREFILTER, false);
+        IType listened = edgeCases.getJavaProject().findType("synthetic.edge.Listened");
+        assertNull(analyze(edgeCases.getJavaProject()).get(listened));
+    }
+
+    @Test
+    void searchPrefilterDetectsTheSameConcepts() {
+        preferences.putBoolean(PREFILTER, false);
+        Map<IJavaElement, Set<String>> expected = analyze();
+
+        preferences.putBoolean(PREFILTER, true);
+        assertEquals(expected, analyze());
+    }
+
+    @Test
+    void searchPrefilterDetectsTheSameConceptsOfEdgeCases() throws Exception {
+        // types implementing a concept interface through a supertype and packages annotated only in package-info
+        IType concreteRoot = edgeCases.getJavaProject().findType("synthetic.edge.ConcreteRoot");
+        assertTrue(new ConceptSearch(jMolecules).search(edgeCases.getJavaProject(), new NullProgressMonitor())
+            .contains(concreteRoot));
+
+        preferences.putBoolean(PREFILTER, true);
+        Map<IJavaElement, Set<String>> concepts = analyze(edgeCases.getJavaProject());
+        assertEquals(Set.of("AggregateRoot"), concepts.get(concreteRoot));
+        assertEquals(edgeCaseConcepts(), concepts);
+    }
+
+    @Test
+    void projectHierarchyDetectsTheSameConcepts() {
+        preferences.putBoolean(PREFILTER, false);
+        Map<IJavaElement, Set<String>> expected = analyze();
+
+        preferences.putBoolean(PROJECT_HIERARCHY, true);
+        assertEquals(expected, analyze());
+    }
+
+    @Test
+    void astScanDetectsTheSameConcepts() {
+        preferences.putBoolean(PREFILTER, false);
+        Map<IJavaElement, Set<String>> expected = analyze();
+
+        preferences.putBoolean(AST_SCAN, true);
+        assertEquals(expected, analyze());
+    }
+
+    @Test
+    void astScanDetectsTheSameConceptsOfEdgeCases() throws Exception {
+        preferences.putBoolean(AST_SCAN, true);
+        preferences.putBoolean(PREFILTER, false);
+        assertEquals(edgeCaseConcepts(), analyze(edgeCases.getJavaProject()));
+    }
+
+    @Test
+    void astScanAndConceptIndexResolveTheSameImages() {
+        // images are set when the nodes are created, the scanner and the index take them from the flags at hand
+        preferences.putBoolean(PREFILTER, false);
+        Map<IJavaElement, ImageKey> expected = images(create(edgeCases.getJavaProject()), new HashMap<>());
+
+        preferences.putBoolean(AST_SCAN, true);
+        TreeFactory treeFactory = new TreeFactory(jMolecules, new ConceptIndex(index, jMolecules));
+        assertEquals(expected, images(treeFactory.create(edgeCases.getJavaProject(), new NullProgressMonitor()),
+                new HashMap<>()));
+
+        TreeFactory restoring = new TreeFactory(jMolecules, new ConceptIndex(index, jMolecules));
+        assertEquals(expected, images(restoring.create(edgeCases.getJavaProject(), new NullProgressMonitor()),
+                new HashMap<>()));
+    }
+
+    @Test
+    void lazyTreeDetectsTheSameConcepts() {
+        preferences.putBoolean(PREFILTER, false);
+        Map<IJavaElement, Set<String>> expected = analyze();
+
+        preferences.putBoolean(LAZY, true);
+        assertEquals(expected, analyze());
+    }
+
+    @Test
+    void lazyTreeDetectsTheSameConceptsOfEdgeCases() throws Exception {
+        // packages only holding indirect implementors must get a loader as well
+        preferences.putBoolean(LAZY, true);
+        Map<IJavaElement, Set<String>> concepts = analyze(edgeCases.getJavaProject());
+        assertEquals(Set.of("AggregateRoot"),
+                concepts.get(edgeCases.getJavaProject().findType("synthetic.edge.ConcreteRoot")));
+        assertEquals(edgeCaseConcepts(), concepts);
+    }
+
+    @Test
+    void treeSizeFollowsLoadsAndUpdates() throws Exception {
+        // the tree cache sizes its trees by the count kept at their roots
+        preferences.putBoolean(LAZY, true);
+        TreeNode tree = create(project.getJavaProject());
+        assertEquals(countNodes(tree), tree.size());
+
+        collect(tree, new HashMap<>());
+        int size = tree.size();
+        assertEquals(countNodes(tree), size);
+
+        // every fifth type expresses a concept, so the package is part of the tree
+        IJavaElement element = project.getJavaProject().findType("synthetic.p0.Type4").getPackageFragment();
+        TreeNode node = tree.findNode(element).get();
+        TreeNode parent = node.getParent();
+        parent.remove(node);
+        assertEquals(size - countNodes(node), tree.size());
+
+        parent.add(node);
+        assertEquals(size, tree.size());
+    }
+
+    @Test
+    void unloadedCountFollowsLoads() throws Exception {
+        preferences.putBoolean(LAZY, true);
+        TreeNode tree = create(project.getJavaProject());
+        int unloaded = tree.countUnloaded();
+        assertEquals(countUnloaded(tree), unloaded);
+
+        TreeNode node = tree.findUnloadedAncestor(project.getJavaProject().findType("synthetic.p0.Type4")).get();
+        node.getChildren();
+        assertEquals(unloaded - 1, tree.countUnloaded());
+        assertEquals(countUnloaded(tree), tree.countUnloaded());
+
+        collect(tree, new HashMap<>());
+        assertEquals(0, tree.countUnloaded());
+    }
+
+    @Test
+    void conceptIndexRestoresTheSameConcepts() {
+        TreeFactory treeFactory = new TreeFactory(jMolecules, new ConceptIndex(index, jMolecules));
+        Map<IJavaElement, Set<String>> expected = collect(treeFactory.create(project.getJavaProject(),
+                new NullProgressMonitor()), new HashMap<>());
+
+        TreeFactory restoring = new TreeFactory(jMolecules, new ConceptIndex(index, jMolecules));
+        assertEquals(expected, collect(restoring.create(project.getJavaProject(), new NullProgressMonitor()),
+                new HashMap<>()));
+    }
+
+    @Test
+    void conceptIndexNoticesChangedSupertypes() throws Exception {
+        SyntheticProject hierarchy = SyntheticProject.create("tree-factory-hierarchy", 1, 1, 0, 0);
+        try {
+            hierarchy.write("synthetic.h.Base", "public abstract class Base implements " + INTERFACE + " {\n}\n");
+            hierarchy.write("synthetic.h.Derived", "public class Derived extends Base {\n}\n");
+            IType derived = hierarchy.getJavaProject().findType("synthetic.h.Derived");
+
+            TreeFactory treeFactory = new TreeFactory(jMolecules, new ConceptIndex(index, jMolecules));
+            assertEquals(Set.of("AggregateRoot"), analyze(treeFactory, hierarchy).get(derived));
+
+            // the unit of the subtype itself is unchanged, the index restored from disk must not answer for it
+            hierarchy.write("synthetic.h.Base", "public abstract class Base {\n}\n");
+            TreeFactory restoring = new TreeFactory(jMolecules, new ConceptIndex(index, jMolecules));
+            assertNull(analyze(restoring, hierarchy).get(derived));
+
+            hierarchy.write("synthetic.h.Base", "public abstract class Base implements " + INTERFACE + " {\n}\n");
+            assertEquals(Set.of("AggregateRoot"), analyze(restoring, hierarchy).get(derived));
+        } finally {
+            hierarchy.delete();
+        }
+    }
+
+    @Test
+    void workspaceTreeDetectsTheSameConceptsAsProjectTrees() throws Exception {
+        SyntheticProject other = SyntheticProject.create("tree-factory-other", 2, 10, 2, 0.5);
+        try {
+            Map<IJavaElement, Set<String>> expected = analyze();
+            expected.putAll(analyze(other.getJavaProject()));
+
+            ConceptIndex conceptIndex = new ConceptIndex(index.resolve("workspace"), jMolecules);
+            TreeNode tree = new TreeFactory(jMolecules, conceptIndex)
+                .create(List.of(project.getJavaProject(), other.getJavaProject()), new NullProgressMonitor());
+
+            assertEquals(List.of(project.getJavaProject(), other.getJavaProject()),
+                    tree.getChildren().stream().map(TreeNode::getSource).collect(toList()));
+            assertEquals(expected, collect(tree, new HashMap<>()));
+        } finally {
+            other.delete();
+        }
+    }
+
+    @Test
+    void streamedAnalysisDetectsTheSameConceptsAsTheProjectTree() {
+        Map<IJavaElement, Set<String>> expected = analyze();
+
+        ConceptIndex conceptIndex = new ConceptIndex(index.resolve("streamed"), jMolecules);
+        Map<IJavaElement, Set<String>> streamed = new ConcurrentHashMap<>();
+        new TreeFactory(jMolecules, conceptIndex).analyze(project.getJavaProject(), n -> collect(n, streamed),
+                new NullProgressMonitor());
+
+        assertEquals(expected, streamed);
+    }
+
+    private Map<IJavaElement, Set<String>> analyze() {
+        return analyze(project.getJavaProject());
+    }
+
+    private Map<IJavaElement, Set<String>> analyze(IJavaProject javaProject) {
+        return collect(create(javaProject), new HashMap<>());
+    }
+
+    private TreeNode create(IJavaProject javaProject) {
+        // every analysis starts from an empty index, otherwise the index would answer instead of the analysis
+        ConceptIndex conceptIndex = new ConceptIndex(index.resolve(String.valueOf(System.nanoTime())), jMolecules);
+        return new TreeFactory(jMolecules, conceptIndex).create(javaProject, new NullProgressMonitor());
+    }
+
+    private static Map<IJavaElement, Set<String>> edgeCaseConcepts() throws Exception {
+        IJavaProject javaProject = edgeCases.getJavaProject();
+        IPackageFragmentRoot src = javaProject.getPackageFragmentRoot(javaProject.getProject().getFolder("src"));
+
+        Map<IJavaElement, Set<String>> concepts = new HashMap<>();
+        concepts.put(src.getPackageFragment("synthetic.edge.context"), Set.of("BoundedContext"));
+        concepts.put(javaProject.findType("synthetic.edge.EventHandlers").getMethod("on", new String[] { "QObject;" }),
+                Set.of("DomainEventHandler"));
+        concepts.put(javaProject.findType("synthetic.edge.Marker"), Set.of("Module"));
+        concepts.put(javaProject.findType("org.jmolecules.ddd.annotation.SamePackage"), Set.of("Entity"));
+        for (String name : List.of("AbstractRoot", "ConcreteRoot", "Root", "RootImpl")) {
+            concepts.put(javaProject.findType("synthetic.edge." + name), Set.of("AggregateRoot"));
+        }
+        return concepts;
+    }
+
+    private static Map<IJavaElement, Set<String>> analyze(TreeFactory treeFactory, SyntheticProject project) {
+        return collect(treeFactory.create(project.getJavaProject(), new NullProgressMonitor()), new HashMap<>());
+    }
+
+    // loaded children only, the count must not load anything
+    private static int countNodes(TreeNode node) {
+        int count = 1;
+        if (node.isLoaded()) {
+            for (TreeNode child : node.getChildren()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private static int countUnloaded(TreeNode node) {
+        if (!node.isLoaded()) {
+            return 1;
+        }
+        return node.getChildren().stream().mapToInt(TreeFactoryTest::countUnloaded).sum();
+    }
+
+    private static Map<IJavaElement, ImageKey> images(TreeNode node, Map<IJavaElement, ImageKey> images) {
+        if (node.getSource() != null) {
+            images.put(node.getSource(), node.getImageKey());
+        }
+        node.getChildren().forEach(c -> images(c, images));
+        return images;
+    }
+
+    private static Map<IJavaElement, Set<String>> collect(TreeNode node, Map<IJavaElement, Set<String>> concepts) {
+        if (!node.getConcepts().isEmpty()) {
+            Set<String> names = new TreeSet<>();
+            node.getConcepts().get().stream().map(Concept::getName).forEach(names::add);
+            concepts.put(node.getSource(), names);
+        }
+        node.getChildren().forEach(c -> collect(c, concepts));
+        return concepts;
+    }
+}
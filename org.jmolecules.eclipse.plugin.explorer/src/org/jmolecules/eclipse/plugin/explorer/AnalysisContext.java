@@ -0,0 +1,265 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getChildren;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getCompilationUnit;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getImports;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getPackageDeclarations;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isInterface;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.supertypeHierarchy;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.typeHierarchy;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IImportDeclaration;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IRegion;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+
+class AnalysisContext {
+
+    private final Map<String, Map<String, String>> annotationsByPackage;
+    private final IProgressMonitor monitor;
+    private final Set<IJavaElement> candidates;
+    private final Set<IJavaElement> enclosing;
+
+    // resolution results are shared by all contexts derived from the same one, e.g. for all projects of a workspace
+    private final Map<IType, Set<String>> interfaces;
+    private final Map<IType, Set<IType>> supertypes;
+    private final Map<ICompilationUnit, Map<String, String>> annotations;
+    private final Map<ICompilationUnit, Map<String, ScannedElement>> scanned;
+    private final Set<IJavaProject> hierarchyProjects;
+    private final Map<IJavaProject, ITypeHierarchy> projectHierarchies;
+
+    AnalysisContext(Set<String> annotations, IProgressMonitor monitor) {
+        this(annotations, null, monitor);
+    }
+
+    AnalysisContext(Set<String> annotations, Set<IJavaElement> candidates, IProgressMonitor monitor) {
+        this.annotationsByPackage = new HashMap<>();
+        annotations.forEach(a -> annotationsByPackage //
+            .computeIfAbsent(packageName(a), k -> new HashMap<>()) //
+            .put(simpleName(a), a));
+        this.monitor = cancellationMonitor(monitor);
+        this.candidates = candidates;
+        this.enclosing = candidates != null ? enclosing(candidates) : null;
+        this.interfaces = new ConcurrentHashMap<>();
+        this.supertypes = new ConcurrentHashMap<>();
+        this.annotations = new ConcurrentHashMap<>();
+        this.scanned = new ConcurrentHashMap<>();
+        this.hierarchyProjects = ConcurrentHashMap.newKeySet();
+        this.projectHierarchies = new ConcurrentHashMap<>();
+    }
+
+    AnalysisContext(AnalysisContext shared, Set<IJavaElement> candidates) {
+        this.annotationsByPackage = shared.annotationsByPackage;
+        this.monitor = shared.monitor;
+        this.candidates = candidates;
+        this.enclosing = candidates != null ? enclosing(candidates) : null;
+        this.interfaces = shared.interfaces;
+        this.supertypes = shared.supertypes;
+        this.annotations = shared.annotations;
+        this.scanned = shared.scanned;
+        this.hierarchyProjects = shared.hierarchyProjects;
+        this.projectHierarchies = shared.projectHierarchies;
+    }
+
+    IProgressMonitor getMonitor() {
+        return monitor;
+    }
+
+    boolean isCandidate(IJavaElement element) {
+        return candidates == null || candidates.contains(element);
+    }
+
+    boolean mayContainCandidates(IJavaElement element) {
+        return enclosing == null || enclosing.contains(element);
+    }
+
+    void useProjectHierarchy(IJavaProject project) {
+        hierarchyProjects.add(project);
+    }
+
+    Set<String> getInterfaces(IType type) {
+        // not computed within the map, resolving a type also records the interfaces of its supertypes
+        Set<String> resolved = interfaces.get(type);
+        if (resolved == null) {
+            resolved = resolveInterfaces(type);
+            interfaces.putIfAbsent(type, resolved);
+        }
+        return resolved;
+    }
+
+    Set<IType> getSupertypes(IType type) {
+        // recorded while the interfaces of the type are resolved or while its unit is scanned
+        Set<IType> resolved = supertypes.get(type);
+        if (resolved == null) {
+            getInterfaces(type);
+            resolved = supertypes.getOrDefault(type, Set.of());
+        }
+        return resolved;
+    }
+
+    void addSupertypes(IType type, Set<IType> resolved) {
+        supertypes.putIfAbsent(type, Set.copyOf(resolved));
+    }
+
+    void addScanned(Map<ICompilationUnit, Map<String, ScannedElement>> units) {
+        scanned.putAll(units);
+    }
+
+    Optional<Map<String, ScannedElement>> getScanned(ICompilationUnit unit) {
+        return Optional.ofNullable(scanned.get(unit));
+    }
+
+    String resolveAnnotation(IAnnotation annotation) {
+        String name = annotation.getElementName();
+        if (name.indexOf('.') >= 0) {
+            return name;
+        }
+
+        ICompilationUnit compilationUnit = getCompilationUnit(annotation);
+        if (compilationUnit == null) {
+            return name;
+        }
+
+        return annotations.computeIfAbsent(compilationUnit, this::resolveAnnotations).getOrDefault(name, name);
+    }
+
+    Map<String, String> annotationTable(Map<String, String> imports, Set<String> onDemand) {
+        Map<String, String> resolved = new HashMap<>(imports);
+        onDemand.stream() //
+            .map(p -> annotationsByPackage.getOrDefault(p, Map.of())) //
+            .forEach(m -> m.forEach(resolved::putIfAbsent));
+
+        return resolved;
+    }
+
+    private Map<String, String> resolveAnnotations(ICompilationUnit compilationUnit) {
+        Map<String, String> imports = new HashMap<>();
+        Set<String> onDemand = new HashSet<>();
+
+        stream(getPackageDeclarations(compilationUnit)).map(IJavaElement::getElementName).forEach(onDemand::add);
+        for (IImportDeclaration declaration : getImports(compilationUnit)) {
+            String name = declaration.getElementName();
+            if (declaration.isOnDemand()) {
+                onDemand.add(packageName(name));
+            } else {
+                imports.put(simpleName(name), name);
+            }
+        }
+
+        return annotationTable(imports, onDemand);
+    }
+
+    private Set<String> resolveInterfaces(IType type) {
+        ITypeHierarchy hierarchy = projectHierarchy(type);
+        if (hierarchy != null) {
+            supertypes.putIfAbsent(type, supertypes(hierarchy, type));
+            return resolveInterfaces(hierarchy, type);
+        }
+
+        hierarchy = supertypeHierarchy(type, monitor);
+
+        // the supertypes are often shared by many types, possibly of other projects, so they are resolved right away
+        for (IType supertype : hierarchy.getAllSupertypes(type)) {
+            if (!interfaces.containsKey(supertype)) {
+                supertypes.putIfAbsent(supertype, supertypes(hierarchy, supertype));
+                interfaces.putIfAbsent(supertype, resolveInterfaces(hierarchy, supertype));
+            }
+        }
+        supertypes.putIfAbsent(type, supertypes(hierarchy, type));
+        return stream(hierarchy.getAllInterfaces()).map(IType::getFullyQualifiedName).collect(toUnmodifiableSet());
+    }
+
+    private ITypeHierarchy projectHierarchy(IType type) {
+        IJavaProject project = type.getJavaProject();
+        if (!hierarchyProjects.contains(project)) {
+            return null;
+        }
+
+        // one hierarchy over all source roots resolves the supertypes of every type of the project in a single pass
+        ITypeHierarchy projectHierarchy = projectHierarchies.computeIfAbsent(project, p -> {
+            IRegion region = JavaCore.newRegion();
+            stream(getChildren(p)) //
+                .filter(JavaModelUtils::isSourcePackageFragmentRoot) //
+                .forEach(region::add);
+            return typeHierarchy(p, region, monitor);
+        });
+        return projectHierarchy.contains(type) ? projectHierarchy : null;
+    }
+
+    private static Set<String> resolveInterfaces(ITypeHierarchy hierarchy, IType type) {
+        Set<String> resolved = new HashSet<>();
+        stream(hierarchy.getAllSuperInterfaces(type)).map(IType::getFullyQualifiedName).forEach(resolved::add);
+        if (isInterface(type)) {
+            resolved.add(type.getFullyQualifiedName());
+        }
+        return Set.copyOf(resolved);
+    }
+
+    private static Set<IType> supertypes(ITypeHierarchy hierarchy, IType type) {
+        return Set.copyOf(asList(hierarchy.getAllSupertypes(type)));
+    }
+
+    private static IProgressMonitor cancellationMonitor(IProgressMonitor monitor) {
+        // only forwards cancellation, the hierarchy computation must not report work to the analysis monitor
+        return new NullProgressMonitor() {
+
+            @Override
+            public boolean isCanceled() {
+                return monitor != null && monitor.isCanceled();
+            }
+        };
+    }
+
+    private static Set<IJavaElement> enclosing(Set<IJavaElement> candidates) {
+        Set<IJavaElement> enclosing = new HashSet<>();
+        for (IJavaElement candidate : candidates) {
+            IJavaElement element = candidate;
+            while (element != null && enclosing.add(element)) {
+                element = element.getParent();
+            }
+        }
+        return enclosing;
+    }
+
+    private static String packageName(String fqcn) {
+        int lastDotIndex = fqcn.lastIndexOf('.');
+        return lastDotIndex < 0 ? "" : fqcn.substring(0, lastDotIndex);
+    }
+
+    private static String simpleName(String fqcn) {
+        return fqcn.substring(fqcn.lastIndexOf('.') + 1);
+    }
+}
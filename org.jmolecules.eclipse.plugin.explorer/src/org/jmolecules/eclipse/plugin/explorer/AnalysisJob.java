@@ -0,0 +1,83 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static org.eclipse.core.runtime.Status.CANCEL_STATUS;
+import static org.eclipse.core.runtime.Status.OK_STATUS;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaProject;
+
+class AnalysisJob extends Job {
+
+    private final TreeFactory treeFactory;
+    private final IJavaProject project;
+    private final Collection<IJavaProject> projects;
+
+    private volatile TreeNode tree;
+
+    AnalysisJob(TreeFactory treeFactory, IJavaProject project) {
+        super("Analyzing " + project.getElementName());
+        this.treeFactory = treeFactory;
+        this.project = project;
+        this.projects = List.of(project);
+        setPriority(LONG);
+    }
+
+    AnalysisJob(TreeFactory treeFactory, Collection<IJavaProject> projects) {
+        super("Analyzing workspace");
+        this.treeFactory = treeFactory;
+        this.project = null;
+        this.projects = List.copyOf(projects);
+        setPriority(LONG);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        TreeNode result = isWorkspace() ? treeFactory.create(projects, monitor) : treeFactory.create(project, monitor);
+        if (monitor.isCanceled()) {
+            return CANCEL_STATUS;
+        }
+
+        tree = result;
+        return OK_STATUS;
+    }
+
+    IJavaProject getProject() {
+        return project;
+    }
+
+    boolean isWorkspace() {
+        return project == null;
+    }
+
+    boolean isAffectedBy(JavaModelChanges changes) {
+        // projects which were added or opened may belong to the analyzed workspace as well
+        if (isWorkspace() && !changes.getRebuiltProjects().isEmpty()) {
+            return true;
+        }
+        return projects.stream().anyMatch(changes::affects);
+    }
+
+    TreeNode getTree() {
+        return tree;
+    }
+}
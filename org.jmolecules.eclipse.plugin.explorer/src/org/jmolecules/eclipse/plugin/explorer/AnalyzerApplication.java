@@ -0,0 +1,165 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.stream;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getJavaProjects;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+// analyzes the Java projects of a workspace without a workbench and streams the elements expressing concepts
+public class AnalyzerApplication implements IApplication {
+
+    private static final Integer EXIT_ERROR = 1;
+
+    private static final String USAGE = "Usage: [-import <dir>[" + File.pathSeparator + "<dir>...]] [-format "
+            + String.join("|", ConceptReport.FORMATS) + "] [-output <file>]";
+
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        List<File> imports = new ArrayList<>();
+        String format = ConceptReport.NDJSON;
+        File output = null;
+
+        String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+        for (int i = 0; args != null && i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null || !List.of("-import", "-format", "-output").contains(args[i])) {
+                System.err.println(USAGE);
+                return EXIT_ERROR;
+            }
+            if ("-import".equals(args[i])) {
+                stream(value.split(File.pathSeparator)).map(File::new).forEach(imports::add);
+            } else if ("-format".equals(args[i])) {
+                format = value;
+            } else {
+                output = new File(value);
+            }
+            i++;
+        }
+        if (!ConceptReport.FORMATS.contains(format)) {
+            System.err.println(USAGE);
+            return EXIT_ERROR;
+        }
+
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        for (File directory : imports) {
+            importProjects(workspace, directory);
+        }
+
+        List<IJavaProject> projects = stream(getJavaProjects(JavaCore.create(workspace.getRoot()))) //
+            .filter(p -> p.getProject().isOpen()) //
+            .sorted(comparing(IJavaElement::getElementName)) //
+            .collect(toList());
+
+        JMolecules jMolecules = new JMolecules();
+        TreeFactory treeFactory = new TreeFactory(jMolecules, new ConceptIndex(jMolecules));
+
+        Writer writer = output != null ? Files.newBufferedWriter(output.toPath(), UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, UTF_8));
+        try {
+            ConceptReport report = ConceptReport.create(format, writer);
+            report.start();
+
+            long start = System.nanoTime();
+            for (IJavaProject project : projects) {
+                long projectStart = System.nanoTime();
+                treeFactory.analyze(project, report::report, new NullProgressMonitor());
+                report.reported(project.getElementName(), millisSince(projectStart));
+            }
+            report.finish();
+            System.err.println(report.summary(millisSince(start)));
+        } finally {
+            // standard output is left open for the platform
+            if (output != null) {
+                writer.close();
+            } else {
+                writer.flush();
+            }
+        }
+
+        workspace.save(true, new NullProgressMonitor());
+        return EXIT_OK;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    // the directory itself or its immediate subdirectories may contain projects
+    private static void importProjects(IWorkspace workspace, File directory) throws CoreException {
+        if (new File(directory, IProjectDescription.DESCRIPTION_FILE_NAME).isFile()) {
+            importProject(workspace, directory);
+            return;
+        }
+
+        File[] children = directory.listFiles(File::isDirectory);
+        for (File child : children != null ? children : new File[0]) {
+            if (new File(child, IProjectDescription.DESCRIPTION_FILE_NAME).isFile()) {
+                importProject(workspace, child);
+            }
+        }
+    }
+
+    private static void importProject(IWorkspace workspace, File directory) throws CoreException {
+        IPath location = Path.fromOSString(directory.getAbsolutePath());
+        IProjectDescription description = workspace
+            .loadProjectDescription(location.append(IProjectDescription.DESCRIPTION_FILE_NAME));
+
+        // projects directly within the workspace location must not declare it
+        File root = workspace.getRoot().getLocation().toFile();
+        if (root.getAbsoluteFile().equals(directory.getAbsoluteFile().getParentFile())) {
+            description.setLocation(null);
+        }
+
+        IProject project = workspace.getRoot().getProject(description.getName());
+        if (!project.exists()) {
+            project.create(description, new NullProgressMonitor());
+        }
+        if (!project.isOpen()) {
+            project.open(new NullProgressMonitor());
+        }
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,527 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.Collections.synchronizedMap;
+
+import static org.eclipse.jdt.core.IJavaElement.FIELD;
+import static org.eclipse.jdt.core.IJavaElement.METHOD;
+import static org.eclipse.jdt.core.IJavaElement.PACKAGE_DECLARATION;
+import static org.eclipse.jdt.core.IJavaElement.TYPE;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getRawClasspathEntry;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.Signature;
+import org.jmolecules.eclipse.plugin.explorer.ElementLabels.ImageKey;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+
+class BinaryScanner {
+
+    private static final String JRE_CONTAINER = "org.eclipse.jdt.launching.JRE_CONTAINER";
+    private static final String PACKAGE_INFO = "package-info";
+
+    private static final int ACC_BRIDGE = 0x0040;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    // scans of archives no longer on any classpath, e.g. of replaced versions, are evicted as the least recently used
+    private static final int CACHED_ARCHIVES = 1024;
+
+    private final JMolecules jMolecules;
+
+    // archives are keyed by the hash of their content, projects referencing the same artifact share one scan
+    private final Map<String, Archive> archives = lru(CACHED_ARCHIVES);
+    private final Map<File, Digest> digests = lru(CACHED_ARCHIVES);
+
+    BinaryScanner(JMolecules jMolecules) {
+        this.jMolecules = jMolecules;
+    }
+
+    static boolean isScannable(IJavaElement element) {
+        if (!(element instanceof IPackageFragmentRoot) || !((IPackageFragmentRoot) element).isArchive()) {
+            return false;
+        }
+        IClasspathEntry entry = getRawClasspathEntry((IPackageFragmentRoot) element);
+        return entry == null || entry.getEntryKind() != IClasspathEntry.CPE_CONTAINER
+                || !JRE_CONTAINER.equals(entry.getPath().segment(0));
+    }
+
+    Map<IPackageFragmentRoot, Map<IJavaElement, ScannedElement>> scan(List<IPackageFragmentRoot> roots,
+            IProgressMonitor monitor) {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, roots.size() + 1);
+
+        Map<IPackageFragmentRoot, Archive> scanned = new LinkedHashMap<>();
+        for (IPackageFragmentRoot root : roots) {
+            subMonitor.subTask(root.getElementName());
+            archive(root).ifPresent(a -> scanned.put(root, a));
+            subMonitor.split(1);
+        }
+
+        // supertypes are resolved across all archives of the project, the first one declaring a type wins
+        Map<String, ClassInfo> types = new HashMap<>();
+        scanned.values().forEach(a -> a.classes.forEach(types::putIfAbsent));
+        Map<String, Set<String>> supertypes = new HashMap<>();
+
+        Map<IPackageFragmentRoot, Map<IJavaElement, ScannedElement>> found = new LinkedHashMap<>();
+        scanned.forEach((root, archive) -> {
+            Map<IJavaElement, ScannedElement> elements = new LinkedHashMap<>();
+            archive.classes.values().forEach(c -> scan(root, c, types, supertypes, elements));
+            found.put(root, elements);
+        });
+        subMonitor.split(1);
+        return found;
+    }
+
+    private void scan(IPackageFragmentRoot root, ClassInfo info, Map<String, ClassInfo> types,
+            Map<String, Set<String>> supertypes, Map<IJavaElement, ScannedElement> found) {
+        int dot = info.name.lastIndexOf('.');
+        IPackageFragment fragment = root.getPackageFragment(dot < 0 ? "" : info.name.substring(0, dot));
+        String simpleName = info.name.substring(dot + 1);
+
+        if (PACKAGE_INFO.equals(simpleName)) {
+            add(fragment, jMolecules.expresses(PACKAGE_DECLARATION, false, info.annotations, Set.of()), null, found);
+            return;
+        }
+        if ((info.access & ACC_SYNTHETIC) != 0) {
+            return;
+        }
+
+        // superclasses are kept as well, they are never among the interfaces of the concepts
+        Set<String> interfaces = new HashSet<>();
+        if ((info.access & ACC_INTERFACE) != 0) {
+            interfaces.add(qualifiedName(info.name));
+        }
+        supertypes(info.name, types, supertypes).forEach(s -> interfaces.add(qualifiedName(s)));
+
+        IType type = fragment.getOrdinaryClassFile(simpleName + ".class").getType();
+        Map<IJavaElement, ScannedElement> members = new LinkedHashMap<>();
+        for (MemberInfo member : info.members) {
+            if (member.descriptor == null) {
+                add(type.getField(member.name), jMolecules.expresses(FIELD, false, member.annotations, Set.of()),
+                        ElementLabels.getFieldImageKey(member.access), members);
+            } else {
+                String[] parameterTypes = Signature.getParameterTypes(member.descriptor.replace('/', '.'));
+                add(type.getMethod(member.name, parameterTypes),
+                        jMolecules.expresses(METHOD, false, member.annotations, Set.of()),
+                        ElementLabels.getMethodImageKey(member.access), members);
+            }
+        }
+
+        // the type is listed for its members as well, its image is taken from the flags like theirs
+        Concepts concepts = jMolecules.expresses(TYPE, (info.access & ACC_ANNOTATION) != 0, info.annotations,
+                interfaces);
+        if (!concepts.isEmpty() || !members.isEmpty()) {
+            found.put(type, new ScannedElement(concepts, ElementLabels.getTypeImageKey(info.access)));
+            found.putAll(members);
+        }
+    }
+
+    private static void add(IJavaElement element, Concepts concepts, ImageKey imageKey,
+            Map<IJavaElement, ScannedElement> found) {
+        if (!concepts.isEmpty()) {
+            found.put(element, new ScannedElement(concepts, imageKey));
+        }
+    }
+
+    // supertypes declared outside of the archives are listed, but not resolved any further
+    private static Set<String> supertypes(String name, Map<String, ClassInfo> types,
+            Map<String, Set<String>> resolved) {
+        Set<String> supertypes = resolved.get(name);
+        if (supertypes != null) {
+            return supertypes;
+        }
+
+        // guards against cycles on inconsistent classpaths
+        resolved.put(name, Set.of());
+
+        supertypes = new HashSet<>();
+        ClassInfo info = types.get(name);
+        if (info != null) {
+            List<String> direct = new ArrayList<>(List.of(info.interfaces));
+            if (info.superclass != null) {
+                direct.add(info.superclass);
+            }
+            for (String supertype : direct) {
+                supertypes.add(supertype);
+                supertypes.addAll(supertypes(supertype, types, resolved));
+            }
+        }
+
+        resolved.put(name, supertypes);
+        return supertypes;
+    }
+
+    private static String qualifiedName(String binaryName) {
+        return binaryName.replace('$', '.');
+    }
+
+    private Optional<Archive> archive(IPackageFragmentRoot root) {
+        File file = file(root);
+        if (file == null || !file.isFile()) {
+            return Optional.empty();
+        }
+
+        try {
+            String hash = hash(file);
+            Archive archive = archives.get(hash);
+            if (archive == null) {
+                archive = read(file);
+                Archive existing = archives.putIfAbsent(hash, archive);
+                archive = existing != null ? existing : archive;
+            }
+            return Optional.of(archive);
+        } catch (IOException e) {
+            // unreadable archives are left out like archives without concepts
+            return Optional.empty();
+        }
+    }
+
+    private static <K, V> Map<K, V> lru(int capacity) {
+        return synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        });
+    }
+
+    private static File file(IPackageFragmentRoot root) {
+        IResource resource = root.getResource();
+        IPath location = resource != null ? resource.getLocation() : root.getPath();
+        return location != null ? location.toFile() : null;
+    }
+
+    private String hash(File file) throws IOException {
+        long length = file.length();
+        long lastModified = file.lastModified();
+
+        Digest digest = digests.get(file);
+        if (digest != null && digest.length == length && digest.lastModified == lastModified) {
+            return digest.hash;
+        }
+
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(new FileInputStream(file), sha)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        String hash = HexFormat.of().formatHex(sha.digest());
+        digests.put(file, new Digest(length, lastModified, hash));
+        return hash;
+    }
+
+    private Archive read(File file) throws IOException {
+        Set<String> annotationNames = jMolecules.getAnnotationNames();
+        Map<String, ClassInfo> classes = new LinkedHashMap<>();
+
+        try (ZipFile zip = new ZipFile(file)) {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.endsWith("module-info.class")) {
+                    continue;
+                }
+
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(zip.getInputStream(entry)))) {
+                    ClassInfo info = ClassFileReader.read(in, annotationNames);
+                    if (info != null && info.isRelevant()) {
+                        classes.put(info.name, info);
+                    }
+                } catch (IOException e) {
+                    // a damaged entry only leaves out its own class, the rest of the archive is still scanned
+                }
+            }
+        }
+        return new Archive(classes);
+    }
+
+    private static class Digest {
+
+        private final long length;
+        private final long lastModified;
+        private final String hash;
+
+        Digest(long length, long lastModified, String hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+    private static class Archive {
+
+        // only classes which express concepts or may pass interfaces on to their subtypes
+        private final Map<String, ClassInfo> classes;
+
+        Archive(Map<String, ClassInfo> classes) {
+            this.classes = classes;
+        }
+    }
+
+    private static class ClassInfo {
+
+        private final String name;
+        private final int access;
+        private final String superclass;
+        private final String[] interfaces;
+        private final Set<String> annotations;
+        private final List<MemberInfo> members;
+
+        ClassInfo(String name, int access, String superclass, String[] interfaces, Set<String> annotations,
+                List<MemberInfo> members) {
+            this.name = name;
+            this.access = access;
+            this.superclass = superclass;
+            this.interfaces = interfaces;
+            this.annotations = annotations;
+            this.members = members;
+        }
+
+        boolean isRelevant() {
+            return !annotations.isEmpty() || !members.isEmpty() || interfaces.length > 0
+                    || (superclass != null && !"java.lang.Object".equals(superclass));
+        }
+    }
+
+    private static class MemberInfo {
+
+        private final String name;
+        private final int access;
+        // null for fields
+        private final String descriptor;
+        private final Set<String> annotations;
+
+        MemberInfo(String name, int access, String descriptor, Set<String> annotations) {
+            this.name = name;
+            this.access = access;
+            this.descriptor = descriptor;
+            this.annotations = annotations;
+        }
+    }
+
+    // reads the parts of a class file the concepts depend on, see chapter 4 of the Java Virtual Machine Specification
+    static class ClassFileReader {
+
+        private static final int MAGIC = 0xCAFEBABE;
+
+        private final DataInputStream in;
+        private final Set<String> annotationNames;
+        private Object[] pool;
+
+        private ClassFileReader(DataInputStream in, Set<String> annotationNames) {
+            this.in = in;
+            this.annotationNames = annotationNames;
+        }
+
+        static ClassInfo read(DataInputStream in, Set<String> annotationNames) throws IOException {
+            return new ClassFileReader(in, annotationNames).read();
+        }
+
+        private ClassInfo read() throws IOException {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            readConstantPool();
+
+            int access = in.readUnsignedShort();
+            String name = className(in.readUnsignedShort());
+            int superIndex = in.readUnsignedShort();
+            String superclass = superIndex != 0 ? className(superIndex) : null;
+
+            String[] interfaces = new String[in.readUnsignedShort()];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaces[i] = className(in.readUnsignedShort());
+            }
+
+            List<MemberInfo> members = new ArrayList<>();
+            readMembers(false, members);
+            readMembers(true, members);
+            Set<String> annotations = readAttributes();
+
+            return new ClassInfo(name, access, superclass, interfaces, annotations, members);
+        }
+
+        private void readConstantPool() throws IOException {
+            pool = new Object[in.readUnsignedShort()];
+            for (int i = 1; i < pool.length; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case 1: // Utf8
+                        pool[i] = in.readUTF();
+                        break;
+                    case 7: // Class
+                        pool[i] = in.readUnsignedShort();
+                        break;
+                    case 8: // String
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        in.readUnsignedShort();
+                        break;
+                    case 15: // MethodHandle
+                        in.readUnsignedByte();
+                        in.readUnsignedShort();
+                        break;
+                    case 3: // Integer
+                    case 4: // Float
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        in.readInt();
+                        break;
+                    case 5: // Long
+                    case 6: // Double
+                        in.readLong();
+                        i++;
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+        }
+
+        private void readMembers(boolean methods, List<MemberInfo> members) throws IOException {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                int access = in.readUnsignedShort();
+                String name = utf8(in.readUnsignedShort());
+                String descriptor = utf8(in.readUnsignedShort());
+                Set<String> annotations = readAttributes();
+
+                if (annotations.isEmpty() || (access & (ACC_SYNTHETIC | (methods ? ACC_BRIDGE : 0))) != 0
+                        || name.startsWith("<")) {
+                    continue;
+                }
+                members.add(new MemberInfo(name, access, methods ? descriptor : null, annotations));
+            }
+        }
+
+        // the jMolecules annotations of the element the attributes belong to, other attributes are skipped
+        private Set<String> readAttributes() throws IOException {
+            Set<String> annotations = Set.of();
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                String name = utf8(in.readUnsignedShort());
+                int length = in.readInt();
+                if ("RuntimeVisibleAnnotations".equals(name) || "RuntimeInvisibleAnnotations".equals(name)) {
+                    annotations = annotations.isEmpty() ? new HashSet<>() : annotations;
+                    int annotationCount = in.readUnsignedShort();
+                    for (int j = 0; j < annotationCount; j++) {
+                        String annotation = readAnnotation();
+                        if (annotationNames.contains(annotation)) {
+                            annotations.add(annotation);
+                        }
+                    }
+                } else {
+                    skip(length);
+                }
+            }
+            return annotations.isEmpty() ? Set.of() : annotations;
+        }
+
+        private String readAnnotation() throws IOException {
+            String descriptor = utf8(in.readUnsignedShort());
+            int pairs = in.readUnsignedShort();
+            for (int i = 0; i < pairs; i++) {
+                in.readUnsignedShort();
+                skipElementValue();
+            }
+            return qualifiedName(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+        }
+
+        private void skipElementValue() throws IOException {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 'e':
+                    in.readInt();
+                    break;
+                case '@':
+                    readAnnotation();
+                    break;
+                case '[':
+                    int count = in.readUnsignedShort();
+                    for (int i = 0; i < count; i++) {
+                        skipElementValue();
+                    }
+                    break;
+                default:
+                    in.readUnsignedShort();
+                    break;
+            }
+        }
+
+        private void skip(int length) throws IOException {
+            for (int remaining = length; remaining > 0;) {
+                int skipped = in.skipBytes(remaining);
+                if (skipped <= 0) {
+                    throw new IOException("Truncated class file");
+                }
+                remaining -= skipped;
+            }
+        }
+
+        private String utf8(int index) {
+            return (String) pool[index];
+        }
+
+        private String className(int index) {
+            return utf8((Integer) pool[index]).replace('/', '.');
+        }
+    }
+}
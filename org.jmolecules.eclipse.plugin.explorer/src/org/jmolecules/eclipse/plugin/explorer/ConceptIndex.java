@@ -0,0 +1,319 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.stream.Collectors.joining;
+
+import static org.eclipse.core.runtime.IStatus.WARNING;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.QUALIFIER;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.jmolecules.eclipse.plugin.explorer.ElementLabels.ImageKey;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+import org.osgi.framework.FrameworkUtil;
+
+class ConceptIndex {
+
+    private static final int MAGIC = 0x4a4d4f4c;
+    private static final int VERSION = 3;
+    // stored by ordinal, the version changes along with the keys
+    private static final ImageKey[] IMAGE_KEYS = ImageKey.values();
+
+    private final Path location;
+    private final int signature;
+
+    private final Map<IJavaProject, Map<String, Unit>> projects = new ConcurrentHashMap<>();
+    private final Set<IJavaProject> modified = ConcurrentHashMap.newKeySet();
+
+    ConceptIndex(JMolecules jMolecules) {
+        this(Platform.getStateLocation(FrameworkUtil.getBundle(ConceptIndex.class)).append("index").toFile().toPath(),
+                jMolecules);
+    }
+
+    // keeps the entries in memory only, e.g. to measure an analysis without any file system access
+    static ConceptIndex inMemory(JMolecules jMolecules) {
+        return new ConceptIndex(null, jMolecules);
+    }
+
+    ConceptIndex(Path location, JMolecules jMolecules) {
+        this.location = location;
+        this.signature = jMolecules.getConcepts().stream() //
+            .map(c -> c.getClass().getName()) //
+            .collect(joining(",")) //
+            .hashCode();
+    }
+
+    Optional<Map<String, ScannedElement>> get(ICompilationUnit unit) {
+        long stamp = modificationStamp(unit);
+        if (stamp == IResource.NULL_STAMP) {
+            return Optional.empty();
+        }
+
+        // type-based concepts depend on the supertypes as well, which may be declared in other units or archives
+        return Optional.ofNullable(units(unit.getJavaProject()).get(unit.getHandleIdentifier())) //
+            .filter(u -> u.stamp == stamp) //
+            .filter(u -> u.dependencies.entrySet().stream() //
+                .allMatch(d -> modificationStamp(JavaCore.create(d.getKey())) == d.getValue())) //
+            .map(u -> u.elements);
+    }
+
+    void put(ICompilationUnit unit, Map<String, ScannedElement> elements, Set<IType> supertypes) {
+        long stamp = modificationStamp(unit);
+        if (stamp == IResource.NULL_STAMP) {
+            return;
+        }
+
+        Map<String, Long> dependencies = new HashMap<>();
+        for (IType supertype : supertypes) {
+            IJavaElement dependency = dependency(supertype);
+            if (dependency == null || dependency.equals(unit)) {
+                continue;
+            }
+
+            long dependencyStamp = modificationStamp(dependency);
+            if (dependencyStamp == IResource.NULL_STAMP) {
+                return;
+            }
+            dependencies.put(dependency.getHandleIdentifier(), dependencyStamp);
+        }
+
+        IJavaProject project = unit.getJavaProject();
+        units(project).put(unit.getHandleIdentifier(), new Unit(stamp, dependencies, elements));
+        modified.add(project);
+    }
+
+    void retain(IJavaProject project, Set<String> units) {
+        if (units(project).keySet().retainAll(units)) {
+            modified.add(project);
+        }
+    }
+
+    void invalidate(IJavaProject project) {
+        Map<String, Unit> units = projects.computeIfAbsent(project, p -> new ConcurrentHashMap<>());
+
+        // waits for a save in progress, which would otherwise write the invalidated entries again
+        synchronized (units) {
+            projects.put(project, new ConcurrentHashMap<>());
+            modified.remove(project);
+            if (location == null) {
+                return;
+            }
+
+            try {
+                Files.deleteIfExists(file(project));
+            } catch (IOException e) {
+                log("Could not delete concept index of " + project.getElementName(), e);
+            }
+        }
+    }
+
+    void save(IJavaProject project) {
+        Map<String, Unit> units = units(project);
+
+        // saves of the same project, e.g. by an analysis and an update, are serialized, the last one writes the
+        // latest entries
+        synchronized (units) {
+            if (!modified.remove(project) || location == null) {
+                return;
+            }
+
+            try {
+                write(project, units);
+            } catch (IOException e) {
+                log("Could not save concept index of " + project.getElementName(), e);
+            }
+        }
+    }
+
+    private Map<String, Unit> units(IJavaProject project) {
+        return projects.computeIfAbsent(project, this::read);
+    }
+
+    private Map<String, Unit> read(IJavaProject project) {
+        Map<String, Unit> units = new ConcurrentHashMap<>();
+        if (location == null) {
+            return units;
+        }
+
+        Path file = file(project);
+        if (!Files.isRegularFile(file)) {
+            return units;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != signature) {
+                return units;
+            }
+
+            int unitCount = in.readInt();
+            for (int i = 0; i < unitCount; i++) {
+                String handle = in.readUTF();
+                long stamp = in.readLong();
+
+                int dependencyCount = in.readInt();
+                Map<String, Long> dependencies = new HashMap<>();
+                for (int j = 0; j < dependencyCount; j++) {
+                    dependencies.put(in.readUTF(), in.readLong());
+                }
+
+                int elementCount = in.readInt();
+                Map<String, ScannedElement> elements = new LinkedHashMap<>();
+                for (int j = 0; j < elementCount; j++) {
+                    String element = in.readUTF();
+                    Concepts concepts = Concepts.of(in.readLong());
+                    int imageKey = in.readByte();
+                    elements.put(element, new ScannedElement(concepts, imageKey < 0 ? null : IMAGE_KEYS[imageKey]));
+                }
+                units.put(handle, new Unit(stamp, dependencies, elements));
+            }
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // a damaged index is simply rebuilt
+            units.clear();
+        }
+        return units;
+    }
+
+    private void write(IJavaProject project, Map<String, Unit> units) throws IOException {
+        Files.createDirectories(location);
+
+        Path file = file(project);
+        // every save writes a file of its own, the complete one replaces the index atomically
+        Path temporary = Files.createTempFile(location, file.getFileName().toString(), ".tmp");
+        try {
+            write(temporary, units);
+            Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void write(Path file, Map<String, Unit> units) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(signature);
+
+            Map<String, Unit> snapshot = new HashMap<>(units);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, Unit> unit : snapshot.entrySet()) {
+                out.writeUTF(unit.getKey());
+                out.writeLong(unit.getValue().stamp);
+
+                Map<String, Long> dependencies = unit.getValue().dependencies;
+                out.writeInt(dependencies.size());
+                for (Map.Entry<String, Long> dependency : dependencies.entrySet()) {
+                    out.writeUTF(dependency.getKey());
+                    out.writeLong(dependency.getValue());
+                }
+
+                Map<String, ScannedElement> elements = unit.getValue().elements;
+                out.writeInt(elements.size());
+                for (Map.Entry<String, ScannedElement> element : elements.entrySet()) {
+                    ImageKey imageKey = element.getValue().getImageKey();
+                    out.writeUTF(element.getKey());
+                    out.writeLong(element.getValue().getConcepts().getMask());
+                    out.writeByte(imageKey != null ? imageKey.ordinal() : -1);
+                }
+            }
+        }
+    }
+
+    private Path file(IJavaProject project) {
+        return location.resolve(project.getElementName() + ".index");
+    }
+
+    private static void log(String message, IOException e) {
+        Platform.getLog(ConceptIndex.class).log(new Status(WARNING, QUALIFIER, message, e));
+    }
+
+    private static IJavaElement dependency(IType type) {
+        if (!type.isBinary()) {
+            return type.getCompilationUnit();
+        }
+
+        // the types of an archive change together, class folders are tracked by class file
+        IPackageFragmentRoot root = (IPackageFragmentRoot) type.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+        return root != null && root.isArchive() ? root : type.getClassFile();
+    }
+
+    private static long modificationStamp(ICompilationUnit unit) {
+        try {
+            IResource resource = unit.getResource();
+            if (resource == null || (unit.isWorkingCopy() && unit.hasUnsavedChanges())) {
+                return IResource.NULL_STAMP;
+            }
+            return resource.getModificationStamp();
+        } catch (JavaModelException e) {
+            return IResource.NULL_STAMP;
+        }
+    }
+
+    private static long modificationStamp(IJavaElement element) {
+        if (element == null) {
+            return IResource.NULL_STAMP;
+        }
+        if (element instanceof ICompilationUnit) {
+            return modificationStamp((ICompilationUnit) element);
+        }
+
+        IResource resource = element.getResource();
+        if (resource != null) {
+            return resource.getModificationStamp();
+        }
+
+        // external archives and class folders are not workspace resources
+        long lastModified = element.getPath().toFile().lastModified();
+        return lastModified != 0 ? lastModified : IResource.NULL_STAMP;
+    }
+
+    private static class Unit {
+
+        private final long stamp;
+        private final Map<String, Long> dependencies;
+        private final Map<String, ScannedElement> elements;
+
+        Unit(long stamp, Map<String, Long> dependencies, Map<String, ScannedElement> elements) {
+            this.stamp = stamp;
+            this.dependencies = dependencies;
+            this.elements = elements;
+        }
+    }
+}
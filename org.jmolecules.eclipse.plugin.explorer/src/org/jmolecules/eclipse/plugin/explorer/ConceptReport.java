@@ -0,0 +1,421 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.Signature;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+
+// writes analyzed elements as they are handed over, nothing but the counts of the summary is kept
+abstract class ConceptReport {
+
+    // the formats are named after their file extensions
+    static final String NDJSON = "ndjson";
+    static final String JSON = "json";
+    static final String CSV = "csv";
+    static final String GRAPHML = "graphml";
+    static final List<String> FORMATS = List.of(NDJSON, JSON, CSV, GRAPHML);
+
+    private static final List<String> COLUMNS = List.of("project", "kind", "element", "resource", "concepts",
+            "categories");
+
+    private final Writer writer;
+    private final Map<String, Integer> concepts = new TreeMap<>();
+    private final Map<String, Long> projects = new LinkedHashMap<>();
+    private int elements;
+
+    ConceptReport(Writer writer) {
+        this.writer = writer;
+    }
+
+    static ConceptReport create(String format, Writer writer) {
+        switch (format) {
+            case NDJSON:
+                return new JsonLines(writer);
+            case JSON:
+                return new Json(writer);
+            case CSV:
+                return new Csv(writer);
+            case GRAPHML:
+                return new GraphMl(writer);
+            default:
+                throw new IllegalArgumentException("Unsupported format " + format);
+        }
+    }
+
+    static Optional<String> formatOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return Optional.of(fileName.substring(dot + 1).toLowerCase()) //
+            .filter(e -> dot >= 0 && FORMATS.contains(e));
+    }
+
+    // packages of a project may be analyzed in parallel, their subtrees are written one after another
+    synchronized void report(TreeNode node) {
+        Concepts found = node.getConcepts();
+        if (!found.isEmpty()) {
+            found.get().forEach(c -> concepts.merge(c.getName(), 1, Integer::sum));
+            elements++;
+        }
+        write(node.getSource(), found);
+        node.getChildren().forEach(this::report);
+    }
+
+    synchronized void reported(String project, long millis) {
+        projects.put(project, millis);
+        flush();
+    }
+
+    // a single JSON object, independent of the format of the report
+    synchronized String summary(long millis) {
+        Map<String, String> summary = new LinkedHashMap<>();
+        summary.put("projects", String.valueOf(projects.size()));
+        summary.put("elements", String.valueOf(elements));
+        summary.put("concepts", object(concepts, String::valueOf));
+        summary.put("projectMillis", object(projects, String::valueOf));
+        summary.put("totalMillis", String.valueOf(millis));
+        return object(summary, Function.identity());
+    }
+
+    void start() {
+    }
+
+    synchronized void finish() {
+        flush();
+    }
+
+    abstract void write(IJavaElement source, Concepts concepts);
+
+    final void write(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    final void writeLine(String line) {
+        write(line);
+        write("\n");
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static List<String> values(IJavaElement source) {
+        return List.of(source.getJavaProject().getElementName(), kind(source), name(source),
+                source.getPath().toPortableString());
+    }
+
+    static List<String> names(Concepts concepts) {
+        return concepts.get().stream() //
+            .map(Concept::getName) //
+            .collect(toList());
+    }
+
+    static List<String> categories(Concepts concepts) {
+        return concepts.getCategories().stream() //
+            .map(Category::humanReadable) //
+            .collect(toList());
+    }
+
+    private static String kind(IJavaElement source) {
+        switch (source.getElementType()) {
+            case IJavaElement.JAVA_PROJECT:
+                return "project";
+            case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+                return "root";
+            case IJavaElement.PACKAGE_FRAGMENT:
+                return "package";
+            case IJavaElement.COMPILATION_UNIT:
+                return "compilationUnit";
+            case IJavaElement.CLASS_FILE:
+                return "classFile";
+            case IJavaElement.TYPE:
+                return "type";
+            case IJavaElement.FIELD:
+                return "field";
+            case IJavaElement.METHOD:
+                return "method";
+            default:
+                return "other";
+        }
+    }
+
+    private static String name(IJavaElement source) {
+        if (source instanceof IPackageFragmentRoot) {
+            return source.getPath().toPortableString();
+        }
+        if (source instanceof IPackageFragment) {
+            return source.getElementName();
+        }
+        if (source instanceof IType) {
+            return ((IType) source).getFullyQualifiedName('.');
+        }
+        if (source instanceof IField) {
+            return ((IField) source).getDeclaringType().getFullyQualifiedName('.') + "." + source.getElementName();
+        }
+        if (source instanceof IMethod) {
+            IMethod method = (IMethod) source;
+            return Stream.of(method.getParameterTypes()) //
+                .map(Signature::toString) //
+                .collect(joining(", ", method.getDeclaringType().getFullyQualifiedName('.') + "."
+                        + method.getElementName() + "(", ")"));
+        }
+        return source.getElementName();
+    }
+
+    private static <T> String object(Map<String, T> members, Function<T, String> values) {
+        return members.entrySet().stream() //
+            .map(e -> quote(e.getKey()) + ":" + values.apply(e.getValue())) //
+            .collect(joining(",", "{", "}"));
+    }
+
+    private static String array(List<String> values) {
+        return values.stream() //
+            .map(ConceptReport::quote) //
+            .collect(joining(",", "[", "]"));
+    }
+
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static class JsonLines extends ConceptReport {
+
+        JsonLines(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void write(IJavaElement source, Concepts concepts) {
+            if (!concepts.isEmpty()) {
+                writeLine(toJson(source, concepts));
+            }
+        }
+
+        static String toJson(IJavaElement source, Concepts concepts) {
+            List<String> values = values(source);
+            Map<String, String> members = new LinkedHashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                members.put(COLUMNS.get(i), quote(values.get(i)));
+            }
+            members.put(COLUMNS.get(values.size()), array(names(concepts)));
+            members.put(COLUMNS.get(values.size() + 1), array(categories(concepts)));
+            return object(members, Function.identity());
+        }
+    }
+
+    // a single array, every element is written to a line of its own
+    static class Json extends ConceptReport {
+
+        private boolean empty = true;
+
+        Json(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void start() {
+            write("[");
+        }
+
+        @Override
+        void write(IJavaElement source, Concepts concepts) {
+            if (!concepts.isEmpty()) {
+                write(empty ? "\n" : ",\n");
+                write(JsonLines.toJson(source, concepts));
+                empty = false;
+            }
+        }
+
+        @Override
+        synchronized void finish() {
+            writeLine(empty ? "]" : "\n]");
+            super.finish();
+        }
+    }
+
+    static class Csv extends ConceptReport {
+
+        Csv(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void start() {
+            writeLine(String.join(",", COLUMNS));
+        }
+
+        @Override
+        void write(IJavaElement source, Concepts concepts) {
+            if (!concepts.isEmpty()) {
+                Stream<String> lists = Stream.of(names(concepts), categories(concepts)).map(l -> String.join(";", l));
+                writeLine(Stream.concat(values(source).stream(), lists) //
+                    .map(Csv::escape) //
+                    .collect(joining(",")));
+            }
+        }
+
+        // quoted as described by RFC 4180
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+
+    // the tree as shown by the explorer, every element is a node with an edge from its parent
+    static class GraphMl extends ConceptReport {
+
+        // projects and roots enclosing the handed over subtrees, written once before their first descendant
+        private final Set<IJavaElement> containers = new HashSet<>();
+
+        GraphMl(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void start() {
+            writeLine("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writeLine("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">");
+            for (String key : COLUMNS.subList(1, COLUMNS.size())) {
+                writeLine("  <key id=\"" + key + "\" for=\"node\" attr.name=\"" + key + "\" attr.type=\"string\"/>");
+            }
+            writeLine("  <graph edgedefault=\"directed\">");
+        }
+
+        @Override
+        void write(IJavaElement source, Concepts concepts) {
+            IJavaElement parent = source.getParent();
+            if (isContainer(parent) && !containers.contains(parent)) {
+                write(parent, Concepts.empty());
+            }
+            if (isContainer(source)) {
+                containers.add(source);
+            }
+
+            List<String> values = values(source);
+            String id = escape(source.getHandleIdentifier());
+            writeLine("    <node id=\"" + id + "\">");
+            writeData(COLUMNS.get(1), values.get(1));
+            writeData(COLUMNS.get(2), values.get(2));
+            writeData(COLUMNS.get(3), values.get(3));
+            if (!concepts.isEmpty()) {
+                writeData(COLUMNS.get(4), String.join(";", names(concepts)));
+                writeData(COLUMNS.get(5), String.join(";", categories(concepts)));
+            }
+            writeLine("    </node>");
+
+            if (parent != null && parent.getElementType() != IJavaElement.JAVA_MODEL) {
+                writeLine("    <edge source=\"" + escape(parent.getHandleIdentifier()) + "\" target=\"" + id + "\"/>");
+            }
+        }
+
+        @Override
+        synchronized void finish() {
+            writeLine("  </graph>");
+            writeLine("</graphml>");
+            super.finish();
+        }
+
+        private void writeData(String key, String value) {
+            writeLine("      <data key=\"" + key + "\">" + escape(value) + "</data>");
+        }
+
+        private static boolean isContainer(IJavaElement element) {
+            return element != null && (element.getElementType() == IJavaElement.JAVA_PROJECT
+                    || element.getElementType() == IJavaElement.PACKAGE_FRAGMENT_ROOT);
+        }
+
+        private static String escape(String value) {
+            StringBuilder sb = new StringBuilder();
+            for (char c : value.toCharArray()) {
+                switch (c) {
+                    case '<':
+                        sb.append("&lt;");
+                        break;
+                    case '>':
+                        sb.append("&gt;");
+                        break;
+                    case '&':
+                        sb.append("&amp;");
+                        break;
+                    case '"':
+                        sb.append("&quot;");
+                        break;
+                    default:
+                        sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
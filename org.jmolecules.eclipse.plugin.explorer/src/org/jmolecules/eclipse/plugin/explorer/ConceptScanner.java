@@ -0,0 +1,278 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static org.eclipse.jdt.core.IJavaElement.COMPILATION_UNIT;
+import static org.eclipse.jdt.core.IJavaElement.FIELD;
+import static org.eclipse.jdt.core.IJavaElement.METHOD;
+import static org.eclipse.jdt.core.IJavaElement.PACKAGE_DECLARATION;
+import static org.eclipse.jdt.core.IJavaElement.TYPE;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isPackageInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.Annotation;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeMemberDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IAnnotationBinding;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.PackageDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.jmolecules.eclipse.plugin.explorer.ElementLabels.ImageKey;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+
+class ConceptScanner {
+
+    private static final int BATCH_SIZE = 250;
+
+    private final JMolecules jMolecules;
+
+    ConceptScanner(JMolecules jMolecules) {
+        this.jMolecules = jMolecules;
+    }
+
+    Map<ICompilationUnit, Map<String, ScannedElement>> scan(IJavaProject project, List<ICompilationUnit> units,
+            AnalysisContext context, IProgressMonitor monitor) {
+        Map<ICompilationUnit, Map<String, ScannedElement>> scanned = new HashMap<>();
+        SubMonitor subMonitor = SubMonitor.convert(monitor, (units.size() + BATCH_SIZE - 1) / BATCH_SIZE);
+
+        ASTRequestor requestor = new ASTRequestor() {
+
+            @Override
+            public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+                scanned.put(source, scan(source, ast, context));
+            }
+        };
+
+        // bindings of one batch share a single name environment, the batch size bounds the memory held by the ASTs
+        for (int i = 0; i < units.size(); i += BATCH_SIZE) {
+            List<ICompilationUnit> batch = units.subList(i, Math.min(i + BATCH_SIZE, units.size()));
+
+            ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+            parser.setProject(project);
+            parser.setResolveBindings(true);
+            parser.setBindingsRecovery(true);
+            parser.setIgnoreMethodBodies(true);
+            parser.createASTs(batch.toArray(new ICompilationUnit[0]), new String[0], requestor, subMonitor.split(1));
+        }
+        return scanned;
+    }
+
+    private Map<String, ScannedElement> scan(ICompilationUnit source, CompilationUnit ast, AnalysisContext context) {
+        Map<String, String> annotations = annotationTable(ast, context);
+        Map<String, ScannedElement> found = new LinkedHashMap<>();
+        Map<IJavaElement, ImageKey> types = new HashMap<>();
+
+        PackageDeclaration declaration = ast.getPackage();
+        if (isPackageInfo(source)) {
+            if (declaration != null) {
+                Concepts concepts = jMolecules.expresses(PACKAGE_DECLARATION, false,
+                        annotations(declaration.annotations(), annotations), Set.of());
+                IJavaElement element = source.getPackageDeclaration(declaration.getName().getFullyQualifiedName());
+                add(element, concepts, null, types, found);
+            }
+            return found;
+        }
+
+        for (Object type : ast.types()) {
+            scan((AbstractTypeDeclaration) type, annotations, types, found, context);
+        }
+        return found;
+    }
+
+    private void scan(AbstractTypeDeclaration declaration, Map<String, String> annotations,
+            Map<IJavaElement, ImageKey> types, Map<String, ScannedElement> found, AnalysisContext context) {
+        ITypeBinding binding = declaration.resolveBinding();
+        if (binding == null) {
+            return;
+        }
+
+        // kept for all types, enclosing types are listed for the members expressing concepts as well
+        ImageKey imageKey = ElementLabels.getTypeImageKey(binding.getModifiers() | kind(binding));
+        if (binding.getJavaElement() != null) {
+            types.put(binding.getJavaElement(), imageKey);
+        }
+
+        Set<IType> supertypes = new HashSet<>();
+        Concepts concepts = jMolecules.expresses(TYPE, declaration instanceof AnnotationTypeDeclaration,
+                annotations(declaration.modifiers(), annotations), interfaces(binding, supertypes));
+        add(binding.getJavaElement(), concepts, imageKey, types, found);
+        if (binding.getJavaElement() instanceof IType) {
+            // the concept index validates the unit against its supertypes
+            context.addSupertypes((IType) binding.getJavaElement(), supertypes);
+        }
+
+        if (declaration instanceof EnumDeclaration) {
+            for (Object constant : ((EnumDeclaration) declaration).enumConstants()) {
+                EnumConstantDeclaration enumConstant = (EnumConstantDeclaration) constant;
+                scan(enumConstant.resolveVariable(), FIELD, enumConstant.modifiers(), annotations, types, found);
+            }
+        }
+
+        for (Object member : declaration.bodyDeclarations()) {
+            if (member instanceof AbstractTypeDeclaration) {
+                scan((AbstractTypeDeclaration) member, annotations, types, found, context);
+            } else if (member instanceof FieldDeclaration) {
+                FieldDeclaration field = (FieldDeclaration) member;
+                for (Object fragment : field.fragments()) {
+                    scan(((VariableDeclarationFragment) fragment).resolveBinding(), FIELD, field.modifiers(), annotations,
+                            types, found);
+                }
+            } else if (member instanceof MethodDeclaration) {
+                MethodDeclaration method = (MethodDeclaration) member;
+                scan(method.resolveBinding(), METHOD, method.modifiers(), annotations, types, found);
+            } else if (member instanceof AnnotationTypeMemberDeclaration) {
+                AnnotationTypeMemberDeclaration method = (AnnotationTypeMemberDeclaration) member;
+                scan(method.resolveBinding(), METHOD, method.modifiers(), annotations, types, found);
+            }
+        }
+    }
+
+    private void scan(IBinding binding, int elementType, List<?> modifiers, Map<String, String> annotations,
+            Map<IJavaElement, ImageKey> types, Map<String, ScannedElement> found) {
+        if (binding != null) {
+            Concepts concepts = jMolecules.expresses(elementType, false, annotations(modifiers, annotations), Set.of());
+            ImageKey imageKey = elementType == FIELD
+                    ? ElementLabels.getFieldImageKey(binding.getModifiers())
+                    : ElementLabels.getMethodImageKey(binding.getModifiers());
+            add(binding.getJavaElement(), concepts, imageKey, types, found);
+        }
+    }
+
+    private static void add(IJavaElement element, Concepts concepts, ImageKey imageKey,
+            Map<IJavaElement, ImageKey> types, Map<String, ScannedElement> found) {
+        if (element == null || concepts.isEmpty()) {
+            return;
+        }
+
+        // the enclosing elements are recorded as well, the tree is rebuilt top-down from the entries
+        List<IJavaElement> enclosing = new ArrayList<>();
+        for (IJavaElement e = element.getParent(); e != null && e.getElementType() != COMPILATION_UNIT; e = e.getParent()) {
+            enclosing.add(0, e);
+        }
+        enclosing.forEach(e -> found.putIfAbsent(e.getHandleIdentifier(),
+                new ScannedElement(Concepts.empty(), types.get(e))));
+        found.put(element.getHandleIdentifier(), new ScannedElement(concepts, imageKey));
+    }
+
+    // modifiers of bindings share their values with Flags, but leave out the kind of the type
+    private static int kind(ITypeBinding binding) {
+        if (binding.isAnnotation()) {
+            return Flags.AccAnnotation | Flags.AccInterface;
+        } else if (binding.isInterface()) {
+            return Flags.AccInterface;
+        } else if (binding.isEnum()) {
+            return Flags.AccEnum;
+        }
+        return 0;
+    }
+
+    private static Map<String, String> annotationTable(CompilationUnit ast, AnalysisContext context) {
+        Map<String, String> imports = new HashMap<>();
+        Set<String> onDemand = new HashSet<>();
+
+        if (ast.getPackage() != null) {
+            onDemand.add(ast.getPackage().getName().getFullyQualifiedName());
+        }
+        for (Object i : ast.imports()) {
+            ImportDeclaration declaration = (ImportDeclaration) i;
+            String name = declaration.getName().getFullyQualifiedName();
+            if (declaration.isOnDemand()) {
+                onDemand.add(name);
+            } else {
+                imports.put(name.substring(name.lastIndexOf('.') + 1), name);
+            }
+        }
+
+        return context.annotationTable(imports, onDemand);
+    }
+
+    private static Set<String> annotations(List<?> modifiers, Map<String, String> annotations) {
+        Set<String> names = new HashSet<>();
+        for (Object modifier : modifiers) {
+            if (modifier instanceof Annotation) {
+                names.add(resolve((Annotation) modifier, annotations));
+            }
+        }
+        return names;
+    }
+
+    private static String resolve(Annotation annotation, Map<String, String> annotations) {
+        IAnnotationBinding binding = annotation.resolveAnnotationBinding();
+        ITypeBinding type = binding != null ? binding.getAnnotationType() : null;
+        if (type != null && !type.isRecovered()) {
+            return type.getErasure().getQualifiedName();
+        }
+
+        // unresolvable annotations are matched by name like in the Java model based analysis
+        String name = annotation.getTypeName().getFullyQualifiedName();
+        return name.indexOf('.') >= 0 ? name : annotations.getOrDefault(name, name);
+    }
+
+    private static Set<String> interfaces(ITypeBinding binding, Set<IType> supertypes) {
+        Set<String> interfaces = new HashSet<>();
+        collectInterfaces(binding, interfaces, supertypes, new HashSet<>());
+        supertypes.remove(binding.getJavaElement());
+        return interfaces;
+    }
+
+    private static void collectInterfaces(ITypeBinding binding, Set<String> interfaces, Set<IType> supertypes,
+            Set<String> visited) {
+        if (binding == null) {
+            return;
+        }
+
+        ITypeBinding erasure = binding.getErasure();
+        if (!visited.add(erasure.getKey())) {
+            return;
+        }
+        if (erasure.isInterface()) {
+            interfaces.add(erasure.getQualifiedName());
+        }
+        if (erasure.getJavaElement() instanceof IType) {
+            supertypes.add((IType) erasure.getJavaElement());
+        }
+
+        collectInterfaces(erasure.getSuperclass(), interfaces, supertypes, visited);
+        for (ITypeBinding i : erasure.getInterfaces()) {
+            collectInterfaces(i, interfaces, supertypes, visited);
+        }
+    }
+}
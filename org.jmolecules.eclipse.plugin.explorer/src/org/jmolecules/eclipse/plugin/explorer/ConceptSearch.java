@@ -0,0 +1,137 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.Arrays.stream;
+
+import static org.eclipse.jdt.core.IJavaElement.PACKAGE_FRAGMENT;
+import static org.eclipse.jdt.core.search.IJavaSearchConstants.ANNOTATION_TYPE_REFERENCE;
+import static org.eclipse.jdt.core.search.IJavaSearchConstants.TYPE;
+import static org.eclipse.jdt.core.search.IJavaSearchScope.SOURCES;
+import static org.eclipse.jdt.core.search.SearchPattern.R_CASE_SENSITIVE;
+import static org.eclipse.jdt.core.search.SearchPattern.R_EXACT_MATCH;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.findType;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.typeHierarchy;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+class ConceptSearch {
+
+    private static final int MATCH_RULE = R_EXACT_MATCH | R_CASE_SENSITIVE;
+
+    private final Set<String> annotations;
+    private final Set<String> interfaces;
+
+    ConceptSearch(JMolecules jMolecules) {
+        this.annotations = jMolecules.getAnnotationNames();
+        this.interfaces = jMolecules.getInterfaceNames();
+    }
+
+    Set<IPackageFragment> packages(IJavaProject project, IProgressMonitor monitor) {
+        Set<IPackageFragment> packages = new HashSet<>();
+        for (IJavaElement element : search(project, monitor)) {
+            Optional.ofNullable(element.getAncestor(PACKAGE_FRAGMENT)) //
+                .map(IPackageFragment.class::cast) //
+                .ifPresent(packages::add);
+        }
+        return packages;
+    }
+
+    Set<IJavaElement> search(IJavaProject project, IProgressMonitor monitor) {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, "Searching " + project.getElementName(), 2);
+
+        Set<IJavaElement> found = new LinkedHashSet<>();
+        found.addAll(annotated(project, subMonitor.split(1)));
+        found.addAll(implementing(project, subMonitor.split(1)));
+        return found;
+    }
+
+    private Set<IJavaElement> annotated(IJavaProject project, IProgressMonitor monitor) {
+        IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { project }, SOURCES);
+        return search(or(annotations, a -> SearchPattern.createPattern(a, TYPE, ANNOTATION_TYPE_REFERENCE, MATCH_RULE)),
+                scope, monitor);
+    }
+
+    private Set<IJavaElement> implementing(IJavaProject project, IProgressMonitor monitor) {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, interfaces.size());
+
+        // an implementors search only finds the types naming the interface, the hierarchy also holds their subclasses
+        Set<IJavaElement> found = new LinkedHashSet<>();
+        for (String name : interfaces) {
+            IType type = findType(project, name);
+            if (type == null) {
+                subMonitor.split(1);
+                continue;
+            }
+
+            stream(typeHierarchy(type, project, subMonitor.split(1)).getAllSubtypes(type)) //
+                .filter(t -> !t.isBinary() && project.equals(t.getJavaProject())) //
+                .forEach(found::add);
+        }
+        return found;
+    }
+
+    private static Set<IJavaElement> search(SearchPattern pattern, IJavaSearchScope scope, IProgressMonitor monitor) {
+        Set<IJavaElement> found = new LinkedHashSet<>();
+        if (pattern == null) {
+            return found;
+        }
+
+        SearchRequestor requestor = new SearchRequestor() {
+
+            @Override
+            public void acceptSearchMatch(SearchMatch match) {
+                if (match.getElement() instanceof IJavaElement && !match.isInsideDocComment()) {
+                    found.add((IJavaElement) match.getElement());
+                }
+            }
+        };
+
+        try {
+            new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
+                    scope, requestor, monitor);
+        } catch (CoreException e) {
+            throw new RuntimeException(e);
+        }
+        return found;
+    }
+
+    private static <T> SearchPattern or(Collection<T> sources, Function<T, SearchPattern> factory) {
+        return sources.stream() //
+            .map(factory) //
+            .reduce(SearchPattern::createOrPattern) //
+            .orElse(null);
+    }
+}
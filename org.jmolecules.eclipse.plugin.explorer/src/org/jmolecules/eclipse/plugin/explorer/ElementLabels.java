@@ -0,0 +1,199 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.stream.Collectors.joining;
+
+import static org.eclipse.jdt.core.Flags.isPackageDefault;
+import static org.eclipse.jdt.core.Flags.isPrivate;
+import static org.eclipse.jdt.core.Flags.isProtected;
+import static org.eclipse.jdt.core.Flags.isPublic;
+import static org.eclipse.jdt.core.IJavaElement.ANNOTATION;
+import static org.eclipse.jdt.core.IJavaElement.CLASS_FILE;
+import static org.eclipse.jdt.core.IJavaElement.COMPILATION_UNIT;
+import static org.eclipse.jdt.core.IJavaElement.FIELD;
+import static org.eclipse.jdt.core.IJavaElement.JAVA_PROJECT;
+import static org.eclipse.jdt.core.IJavaElement.METHOD;
+import static org.eclipse.jdt.core.IJavaElement.PACKAGE_FRAGMENT;
+import static org.eclipse.jdt.core.IJavaElement.PACKAGE_FRAGMENT_ROOT;
+import static org.eclipse.jdt.core.IJavaElement.TYPE;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getFlags;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isAnnotation;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isClass;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isEnum;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isInterface;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+
+// labels and image keys of tree nodes, free of UI dependencies so the headless analysis can create nodes as well
+final class ElementLabels {
+
+    private static final Map<Integer, Function<IJavaElement, ImageKey>> MAPPINGS = init();
+
+    private ElementLabels() {
+    }
+
+    static String getText(IJavaElement source, Concepts concepts) {
+        StringBuilder sb = new StringBuilder();
+        if (source instanceof IPackageFragmentRoot) {
+            sb.append(toString((IPackageFragmentRoot) source));
+        } else if (source instanceof IPackageFragment) {
+            sb.append(toString((IPackageFragment) source));
+        } else {
+            sb.append(source.getElementName());
+        }
+
+        if (!concepts.isEmpty()) {
+            sb.append(" ").append(toString(concepts.get()));
+        }
+        return sb.toString();
+    }
+
+    static ImageKey getImageKey(IJavaElement source) {
+        if (source == null) {
+            return null;
+        }
+        return MAPPINGS.getOrDefault(source.getElementType(), s -> null).apply(source);
+    }
+
+    // access flags of class files share their values with Flags, so binary elements need not be opened
+    static ImageKey getTypeImageKey(int flags) {
+        if (Flags.isAnnotation(flags)) {
+            return ImageKey.ANNOTATION;
+        } else if (Flags.isInterface(flags)) {
+            return ImageKey.INTERFACE;
+        } else if (Flags.isEnum(flags)) {
+            return ImageKey.ENUM;
+        }
+        // the same rule as for source types, only types without any visibility modifier are shown as package private
+        return isPackageDefault(flags) ? ImageKey.CLASS_DEFAULT : ImageKey.CLASS;
+    }
+
+    static ImageKey getFieldImageKey(int flags) {
+        if (isPrivate(flags)) {
+            return ImageKey.FIELD_PRIVATE;
+        } else if (isProtected(flags)) {
+            return ImageKey.FIELD_PROTECTED;
+        } else if (isPackageDefault(flags)) {
+            return ImageKey.FIELD_DEFAULT;
+        } else if (isPublic(flags)) {
+            return ImageKey.FIELD_PUBLIC;
+        }
+        return null;
+    }
+
+    static ImageKey getMethodImageKey(int flags) {
+        if (isPrivate(flags)) {
+            return ImageKey.METHOD_PRIVATE;
+        } else if (isProtected(flags)) {
+            return ImageKey.METHOD_PROTECTED;
+        } else if (isPackageDefault(flags)) {
+            return ImageKey.METHOD_DEFAULT;
+        } else if (isPublic(flags)) {
+            return ImageKey.METHOD_PUBLIC;
+        }
+        return null;
+    }
+
+    private static String toString(IPackageFragmentRoot source) {
+        if (source.isArchive()) {
+            return source.getElementName();
+        }
+
+        IPath path = source.getPath();
+
+        StringBuilder sb = new StringBuilder();
+        if (source.getJavaProject().getElementName().equals(path.segment(0))) {
+            if (path.segmentCount() == 1) {
+                sb.append("<project root>");
+            } else {
+                sb.append(path.removeFirstSegments(1).makeRelative());
+            }
+        } else {
+            sb.append(path);
+        }
+
+        return sb.toString();
+    }
+
+    private static String toString(IPackageFragment source) {
+        String name = source.getElementName();
+        name = name.isEmpty() ? "(default package)" : name;
+        return name;
+    }
+
+    private static String toString(List<Concept> concepts) {
+        return concepts.stream() //
+            .sorted() //
+            .map(c -> c.getName()) //
+            .collect(joining(", ", "<", ">"));
+    }
+
+    private static Map<Integer, Function<IJavaElement, ImageKey>> init() {
+        Map<Integer, Function<IJavaElement, ImageKey>> mappings = new HashMap<>();
+        mappings.put(JAVA_PROJECT, s -> ImageKey.PROJECT);
+        mappings.put(PACKAGE_FRAGMENT_ROOT, s -> rootMapping((IPackageFragmentRoot) s));
+        mappings.put(PACKAGE_FRAGMENT, s -> ImageKey.PACKAGE);
+        mappings.put(COMPILATION_UNIT, s -> ImageKey.COMPILATION_UNIT);
+        mappings.put(CLASS_FILE, s -> ImageKey.CLASS_FILE);
+        mappings.put(ANNOTATION, s -> ImageKey.ANNOTATION);
+        mappings.put(TYPE, s -> typeMapping((IType) s));
+        mappings.put(FIELD, s -> getFieldImageKey(getFlags((IField) s)));
+        mappings.put(METHOD, s -> getMethodImageKey(getFlags((IMethod) s)));
+        return mappings;
+    }
+
+    private static ImageKey rootMapping(IPackageFragmentRoot root) {
+        if (!root.isArchive()) {
+            return ImageKey.SOURCE_FOLDER;
+        }
+        return root.isExternal() ? ImageKey.EXTERNAL_ARCHIVE : ImageKey.ARCHIVE;
+    }
+
+    private static ImageKey typeMapping(IType type) {
+        if (isAnnotation(type)) {
+            return ImageKey.ANNOTATION;
+        } else if (isInterface(type)) {
+            return ImageKey.INTERFACE;
+        } else if (isClass(type)) {
+            return isPackageDefault(getFlags(type)) ? ImageKey.CLASS_DEFAULT : ImageKey.CLASS;
+        } else if (isEnum(type)) {
+            return ImageKey.ENUM;
+        }
+        return null;
+    }
+
+    // resolved to the shared images of the workbench by the label provider
+    enum ImageKey {
+        PROJECT, SOURCE_FOLDER, ARCHIVE, EXTERNAL_ARCHIVE, PACKAGE, COMPILATION_UNIT, CLASS_FILE, ANNOTATION, INTERFACE,
+        CLASS, CLASS_DEFAULT, ENUM, FIELD_PUBLIC, FIELD_PROTECTED, FIELD_DEFAULT, FIELD_PRIVATE, METHOD_PUBLIC,
+        METHOD_PROTECTED, METHOD_DEFAULT, METHOD_PRIVATE
+    }
+}
@@ -16,12 +16,17 @@
 package org.jmolecules.eclipse.plugin.explorer;
 
 import static org.eclipse.ui.ISharedImages.IMG_ELCL_COLLAPSEALL;
+import static org.eclipse.ui.ISharedImages.IMG_ETOOL_SAVEAS_EDIT;
+import static org.eclipse.ui.ISharedImages.IMG_OBJ_PROJECT;
+
+import java.util.function.Consumer;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.ui.PartInitException;
 
@@ -47,6 +52,35 @@ class ExplorerActions {
         return action;
     }
 
+    @SuppressWarnings("deprecation")
+    Action showWorkspaceAction(Consumer<Boolean> consumer) {
+        Action action = new Action("Show Workspace", IAction.AS_CHECK_BOX) {
+
+            public void run() {
+                consumer.accept(isChecked());
+            }
+        };
+
+        action.setToolTipText("Show all Java projects of the window working set or of the workspace");
+        imageProvider.getImageDescriptor(IMG_OBJ_PROJECT).ifPresent(action::setImageDescriptor);
+
+        return action;
+    }
+
+    Action exportAction(Runnable runnable) {
+        Action action = new Action("Export...") {
+
+            public void run() {
+                runnable.run();
+            }
+        };
+
+        action.setToolTipText("Export the concepts of the shown projects");
+        imageProvider.getImageDescriptor(IMG_ETOOL_SAVEAS_EDIT).ifPresent(action::setImageDescriptor);
+
+        return action;
+    }
+
     Action showInEditorAction(IJavaElement source) {
         Action action = new Action("Show in Editor") {
 
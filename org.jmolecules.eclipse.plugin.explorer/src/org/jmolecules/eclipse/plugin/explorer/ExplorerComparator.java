@@ -15,14 +15,14 @@
  */
 package org.jmolecules.eclipse.plugin.explorer;
 
-import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingInt;
 import static java.util.Optional.ofNullable;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.WeakHashMap;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.ui.JavaElementComparator;
@@ -33,6 +33,9 @@ class ExplorerComparator extends ViewerComparator {
 
     private final JavaElementComparator delegate;
 
+    // ranks of the children last sorted per parent, reused as long as no other child shows up
+    private final Map<TreeNode, Map<TreeNode, Integer>> memoized = new WeakHashMap<>();
+
     ExplorerComparator() {
         delegate = new JavaElementComparator(true);
     }
@@ -70,22 +73,46 @@ class ExplorerComparator extends ViewerComparator {
 
     @Override
     public void sort(Viewer viewer, Object[] elements) {
-        IJavaElement[] sources = Arrays.stream(elements) //
+        TreeNode parent = parent(elements);
+        Map<TreeNode, Integer> ranks = parent == null ? null : memoized.get(parent);
+        if (ranks == null || !Arrays.stream(elements).allMatch(ranks::containsKey)) {
+            ranks = rank(viewer, elements);
+            if (parent != null) {
+                memoized.put(parent, ranks);
+            }
+        }
+
+        Map<TreeNode, Integer> sortKeys = ranks;
+        Arrays.sort(elements, comparingInt(e -> sortKeys.getOrDefault(e, Integer.MAX_VALUE)));
+    }
+
+    private Map<TreeNode, Integer> rank(Viewer viewer, Object[] elements) {
+        TreeNode[] nodes = Arrays.stream(elements) //
             .filter(TreeNode.class::isInstance) //
             .map(TreeNode.class::cast) //
-            .map(n -> n.getSource()) //
-            .collect(Collectors.toList()) //
-            .toArray(new IJavaElement[0]);
+            .toArray(TreeNode[]::new);
+
+        Map<IJavaElement, TreeNode> bySource = new HashMap<>();
+        IJavaElement[] sources = new IJavaElement[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            sources[i] = nodes[i].getSource();
+            bySource.put(sources[i], nodes[i]);
+        }
 
         delegate.sort(viewer, sources);
-        Arrays.sort(elements, treeNodeBySourceComparator(asList(sources)));
+
+        // children refer to their parent, so they are held weakly as well to let replaced trees go
+        Map<TreeNode, Integer> ranks = new WeakHashMap<>();
+        for (int i = 0; i < sources.length; i++) {
+            ranks.put(bySource.get(sources[i]), i);
+        }
+        return ranks;
     }
 
-    private static Comparator<Object> treeNodeBySourceComparator(List<IJavaElement> sources) {
-        return (a, b) -> {
-            IJavaElement aSource = ((TreeNode) a).getSource();
-            IJavaElement bSource = ((TreeNode) b).getSource();
-            return sources.indexOf(aSource) - sources.indexOf(bSource);
-        };
+    private static TreeNode parent(Object[] elements) {
+        if (elements.length == 0 || !(elements[0] instanceof TreeNode)) {
+            return null;
+        }
+        return ((TreeNode) elements[0]).getParent();
     }
 }
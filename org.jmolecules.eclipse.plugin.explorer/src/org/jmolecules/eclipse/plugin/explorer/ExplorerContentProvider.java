@@ -15,15 +15,55 @@
  */
 package org.jmolecules.eclipse.plugin.explorer;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.widgets.Display;
 
 class ExplorerContentProvider implements ITreeContentProvider {
 
+    private final Consumer<TreeNode> loadedConsumer;
+    private final Map<TreeNode, LoadJob> loading = new HashMap<>();
+    private final Map<TreeNode, List<Runnable>> callbacks = new HashMap<>();
+
+    private TreeViewer treeViewer;
+    private Display display;
+
+    ExplorerContentProvider(Consumer<TreeNode> loadedConsumer) {
+        this.loadedConsumer = loadedConsumer;
+    }
+
+    @Override
+    public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+        treeViewer = (TreeViewer) viewer;
+        display = viewer.getControl().getDisplay();
+        loading.values().forEach(LoadJob::cancel);
+        loading.clear();
+        callbacks.clear();
+    }
+
+    @Override
+    public void dispose() {
+        loading.values().forEach(LoadJob::cancel);
+        loading.clear();
+        callbacks.clear();
+    }
+
     @Override
     public Object[] getElements(Object inputElement) {
+        if (inputElement instanceof PendingNode) {
+            return new Object[] { inputElement };
+        }
+
         return getChildren(inputElement);
     }
 
@@ -32,6 +72,11 @@ class ExplorerContentProvider implements ITreeContentProvider {
         List<TreeNode> children = null;
         if (parentElement instanceof TreeNode) {
             TreeNode treeNode = (TreeNode) parentElement;
+            if (!treeNode.isLoaded() && treeViewer != null) {
+                // the children are analyzed by a job, the UI thread must not wait for them
+                load(treeNode);
+                return new Object[] { new PendingNode(treeNode.getSource().getElementName()) };
+            }
             children = treeNode.getChildren();
         }
 
@@ -56,4 +101,55 @@ class ExplorerContentProvider implements ITreeContentProvider {
 
         return ((TreeNode) element).hasChildren();
     }
+
+    // the callback runs on the UI thread once the node is loaded, it is dropped if the load is cancelled
+    void load(TreeNode node, Runnable callback) {
+        callbacks.computeIfAbsent(node, n -> new ArrayList<>()).add(callback);
+        load(node);
+    }
+
+    private void load(TreeNode node) {
+        if (loading.containsKey(node)) {
+            return;
+        }
+
+        LoadJob job = new LoadJob(node);
+        job.addJobChangeListener(new JobChangeAdapter() {
+
+            @Override
+            public void done(IJobChangeEvent event) {
+                if (!display.isDisposed()) {
+                    display.asyncExec(() -> loaded(job));
+                }
+            }
+        });
+        loading.put(node, job);
+        job.schedule();
+    }
+
+    private void loaded(LoadJob job) {
+        TreeNode node = job.getNode();
+        if (loading.get(node) != job || treeViewer.getControl().isDisposed()) {
+            return;
+        }
+        loading.remove(node);
+
+        List<TreeNode> children = job.getChildren();
+        if (children == null) {
+            // a cancelled node is collapsed, so it is only analyzed again when it is expanded again
+            treeViewer.setExpandedState(node, false);
+            treeViewer.refresh(node);
+            callbacks.remove(node);
+            return;
+        }
+
+        node.loaded(children);
+        treeViewer.refresh(node);
+        loadedConsumer.accept(node);
+        // removed first, a callback may load further nodes
+        List<Runnable> pending = callbacks.remove(node);
+        if (pending != null) {
+            pending.forEach(Runnable::run);
+        }
+    }
 }
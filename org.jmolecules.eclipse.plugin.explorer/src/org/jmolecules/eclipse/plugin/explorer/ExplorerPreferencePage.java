@@ -0,0 +1,69 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.AST_SCAN;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.BINARY_ROOTS;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.CACHE_SIZE;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.LAZY;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.PARALLELISM;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.PREFILTER;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.PROJECT_HIERARCHY;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.QUALIFIER;
+
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+import org.eclipse.ui.preferences.ScopedPreferenceStore;
+
+public class ExplorerPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+    public ExplorerPreferencePage() {
+        super(GRID);
+    }
+
+    @Override
+    public void init(IWorkbench workbench) {
+        setPreferenceStore(new ScopedPreferenceStore(InstanceScope.INSTANCE, QUALIFIER));
+        setDescription("Settings of the jMolecules Explorer.");
+    }
+
+    @Override
+    protected void createFieldEditors() {
+        IntegerFieldEditor parallelism = new IntegerFieldEditor(PARALLELISM,
+                "Number of threads analyzing a project (1 = sequential):", getFieldEditorParent());
+        parallelism.setValidRange(1, 256);
+        addField(parallelism);
+
+        IntegerFieldEditor cacheSize = new IntegerFieldEditor(CACHE_SIZE,
+                "Memory for caching analyzed projects in MB (0 = disabled):", getFieldEditorParent());
+        cacheSize.setValidRange(0, 4096);
+        addField(cacheSize);
+
+        addField(new BooleanFieldEditor(PREFILTER, "Use the Java search index to find elements expressing concepts",
+                getFieldEditorParent()));
+        addField(new BooleanFieldEditor(PROJECT_HIERARCHY, "Compute one type hierarchy for the whole project",
+                getFieldEditorParent()));
+        addField(new BooleanFieldEditor(AST_SCAN, "Scan compilation units with the Java parser in batches",
+                getFieldEditorParent()));
+        addField(new BooleanFieldEditor(BINARY_ROOTS, "Scan the class files of libraries in JAR archives",
+                getFieldEditorParent()));
+        addField(new BooleanFieldEditor(LAZY, "Analyze packages only when they are expanded", getFieldEditorParent()));
+    }
+}
@@ -0,0 +1,88 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.core.runtime.preferences.DefaultScope;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+
+public class ExplorerPreferences extends AbstractPreferenceInitializer {
+
+    static final String QUALIFIER = "org.jmolecules.eclipse.plugin.explorer";
+
+    static final String PARALLELISM = "analysis.parallelism";
+    static final String CACHE_SIZE = "cache.size";
+    static final String LAZY = "analysis.lazy";
+    static final String PREFILTER = "analysis.prefilter";
+    static final String PROJECT_HIERARCHY = "analysis.hierarchy";
+    static final String AST_SCAN = "analysis.ast";
+    static final String BINARY_ROOTS = "analysis.binary";
+
+    private static final int DEFAULT_CACHE_SIZE = 64;
+
+    @Override
+    public void initializeDefaultPreferences() {
+        IEclipsePreferences defaults = DefaultScope.INSTANCE.getNode(QUALIFIER);
+        defaults.putInt(PARALLELISM, defaultParallelism());
+        defaults.putInt(CACHE_SIZE, DEFAULT_CACHE_SIZE);
+        defaults.putBoolean(LAZY, false);
+        defaults.putBoolean(PREFILTER, true);
+        defaults.putBoolean(PROJECT_HIERARCHY, false);
+        defaults.putBoolean(AST_SCAN, false);
+        defaults.putBoolean(BINARY_ROOTS, false);
+    }
+
+    static int getParallelism() {
+        return Math.max(1, getInt(PARALLELISM, defaultParallelism()));
+    }
+
+    static int getCacheSize() {
+        return Math.max(0, getInt(CACHE_SIZE, DEFAULT_CACHE_SIZE));
+    }
+
+    static boolean isLazy() {
+        return getBoolean(LAZY, false);
+    }
+
+    static boolean isPrefiltered() {
+        return getBoolean(PREFILTER, true);
+    }
+
+    static boolean isProjectHierarchy() {
+        return getBoolean(PROJECT_HIERARCHY, false);
+    }
+
+    static boolean isAstScan() {
+        return getBoolean(AST_SCAN, false);
+    }
+
+    static boolean isBinaryRoots() {
+        return getBoolean(BINARY_ROOTS, false);
+    }
+
+    private static int getInt(String key, int defaultValue) {
+        return Platform.getPreferencesService().getInt(QUALIFIER, key, defaultValue, null);
+    }
+
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        return Platform.getPreferencesService().getBoolean(QUALIFIER, key, defaultValue, null);
+    }
+
+    private static int defaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -33,6 +33,7 @@ import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.ITreeSelection;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.ISelectionListener;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.navigator.resources.ProjectExplorer;
@@ -40,11 +41,21 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 class ExplorerSelectionListener implements ISelectionListener {
 
+    // bursts of selection changes, like caret moves in an editor, are coalesced into the last one of them
+    private static final int DELAY = 150;
+
     private final List<BiFunction<IWorkbenchPart, ISelection, IJavaElement>> functions;
     private final ExplorerView explorerView;
+    private final Display display;
+    private final Runnable flush = this::flush;
+
+    private IWorkbenchPart pendingPart;
+    private ISelection pendingSelection;
+    private IJavaElement handled;
 
-    ExplorerSelectionListener(ExplorerView explorerView) {
+    ExplorerSelectionListener(ExplorerView explorerView, Display display) {
         this.explorerView = explorerView;
+        this.display = display;
         this.functions = List.of(fromTextEditor(), fromPackagesView(), fromProjectExplorer());
     }
 
@@ -58,8 +69,41 @@ class ExplorerSelectionListener implements ISelectionListener {
             return;
         }
 
-        functions.stream().map(f -> f.apply(part, selection)).filter(Objects::nonNull).limit(1).findAny()
-            .ifPresent(explorerView::update);
+        pendingPart = part;
+        pendingSelection = selection;
+        display.timerExec(DELAY, flush);
+    }
+
+    IJavaElement getHandled() {
+        return handled;
+    }
+
+    void forget() {
+        handled = null;
+    }
+
+    void dispose() {
+        display.timerExec(-1, flush);
+        pendingPart = null;
+        pendingSelection = null;
+    }
+
+    private void flush() {
+        IWorkbenchPart part = pendingPart;
+        ISelection selection = pendingSelection;
+        pendingPart = null;
+        pendingSelection = null;
+        if (part == null) {
+            return;
+        }
+
+        // editors resolve to their compilation unit, so moving the caret within one does not get here twice
+        functions.stream().map(f -> f.apply(part, selection)).filter(Objects::nonNull).limit(1).findAny() //
+            .filter(e -> !e.equals(handled)) //
+            .ifPresent(e -> {
+                handled = e;
+                explorerView.update(e);
+            });
     }
 
     private static BiFunction<IWorkbenchPart, ISelection, IJavaElement> fromTextEditor() {
@@ -15,25 +15,48 @@
  */
 package org.jmolecules.eclipse.plugin.explorer;
 
+import static java.util.Arrays.stream;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import static org.eclipse.core.resources.ResourcesPlugin.getWorkspace;
 import static org.eclipse.swt.SWT.H_SCROLL;
 import static org.eclipse.swt.SWT.MULTI;
 import static org.eclipse.swt.SWT.NONE;
+import static org.eclipse.swt.SWT.SAVE;
 import static org.eclipse.swt.SWT.V_SCROLL;
 import static org.eclipse.swt.SWT.WRAP;
 import static org.eclipse.swt.layout.GridData.FILL_BOTH;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getJavaProjects;
 
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import jakarta.annotation.PostConstruct;
 
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.IStatusLineManager;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.action.MenuManager;
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
@@ -41,9 +64,12 @@ import org.eclipse.swt.custom.StackLayout;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.ui.IActionBars;
+import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.part.ViewPart;
 import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
 
@@ -51,25 +77,44 @@ public class ExplorerView extends ViewPart {
 
     private ImageProvider imageProvider;
     private TreeFactory treeFactory;
+    private ConceptIndex conceptIndex;
+    private TreeCache treeCache;
 
     private ExplorerSelectionListener selectionListener;
+    private IElementChangedListener elementChangedListener;
     private ExplorerActions explorerActions;
     private TreeViewer treeViewer;
+    private ExplorerContentProvider contentProvider;
     private Composite container;
     private Label label;
+    private Display display;
+    private TreeNode statusLineTree;
+    private int statusLineModifications;
+    private IJavaElement revealedElement;
+
+    private boolean workspace;
+    private AnalysisJob analysisJob;
+    private IJavaElement pendingElement;
+    private UpdateJob updateJob;
+    private TreeUpdater treeUpdater;
 
     @PostConstruct
     void postConstruct() {
         imageProvider = new ImageProvider();
-        treeFactory = new TreeFactory(new JMolecules());
+        JMolecules jMolecules = new JMolecules();
+        conceptIndex = new ConceptIndex(jMolecules);
+        treeFactory = new TreeFactory(jMolecules, conceptIndex);
+        treeCache = new TreeCache();
         explorerActions = new ExplorerActions(imageProvider);
     }
 
     @Override
     public void createPartControl(Composite parent) {
+        display = parent.getDisplay();
         createControls(parent);
         initializeInteractions(parent);
         registerSelectionListener();
+        registerElementChangedListener();
     }
 
     @Override
@@ -82,34 +127,333 @@ public class ExplorerView extends ViewPart {
     @Override
     public void dispose() {
         deregisterSelectionListener();
+        deregisterElementChangedListener();
+        cancelAnalysis();
+        updateJob.cancel();
+        treeCache.clear();
         super.dispose();
     }
 
     void update(IJavaElement element) {
+        if (workspace) {
+            updateWorkspace(element);
+            return;
+        }
+
         IJavaProject project = element.getJavaProject();
 
-        TreeNode tree = (TreeNode) treeViewer.getInput();
-        if (tree == null || !tree.findNode(project).isPresent()) {
-            treeViewer.setInput(treeFactory.create(project));
-            tree = (TreeNode) treeViewer.getInput();
+        Object input = treeViewer.getInput();
+        if (input instanceof TreeNode && ((TreeNode) input).findNode(project, false).isPresent()) {
+            reveal((TreeNode) input, element);
+            return;
         }
 
-        Optional<TreeNode> treeNode = tree.findNode(element);
-        treeNode.ifPresent(n -> {
-            treeViewer.expandToLevel(n, 0);
-            treeViewer.setSelection(new StructuredSelection(n), true);
-        });
+        Optional<TreeNode> cached = treeCache.get(project);
+        if (cached.isPresent()) {
+            cancelAnalysis();
+            treeViewer.setInput(cached.get());
+            reveal(cached.get(), element);
+            return;
+        }
 
-        updateStatusLine(tree);
-        show(treeViewer.getControl());
+        if (analysisJob != null && project.equals(analysisJob.getProject())) {
+            pendingElement = element;
+            return;
+        }
+
+        analyze(project, element);
+    }
+
+    void showWorkspace(boolean workspace) {
+        IJavaElement element = selectionListener.getHandled();
+        this.workspace = workspace;
+        reset();
+
+        if (workspace) {
+            analyzeWorkspace(element);
+        } else if (element != null) {
+            update(element);
+        }
     }
 
     void reset() {
+        selectionListener.forget();
+        cancelAnalysis();
         treeViewer.setInput(null);
         updateStatusLine(null);
         show(label);
     }
 
+    private void updateWorkspace(IJavaElement element) {
+        Object input = treeViewer.getInput();
+        if (input instanceof TreeNode) {
+            reveal((TreeNode) input, element);
+            return;
+        }
+
+        if (analysisJob != null) {
+            pendingElement = element;
+            return;
+        }
+
+        analyzeWorkspace(element);
+    }
+
+    private void analyzeWorkspace(IJavaElement element) {
+        analyze(new AnalysisJob(treeFactory, workspaceProjects()), "workspace", element);
+    }
+
+    private void analyze(IJavaProject project, IJavaElement element) {
+        analyze(new AnalysisJob(treeFactory, project), project.getElementName(), element);
+    }
+
+    private void analyze(AnalysisJob job, String name, IJavaElement element) {
+        cancelAnalysis();
+
+        job.addJobChangeListener(new JobChangeAdapter() {
+
+            @Override
+            public void done(IJobChangeEvent event) {
+                asyncExec(() -> analyzed(job));
+            }
+        });
+
+        analysisJob = job;
+        pendingElement = element;
+
+        treeViewer.setInput(new PendingNode(name));
+        updateStatusLine(null);
+        show(treeViewer.getControl());
+
+        job.schedule();
+    }
+
+    private void analyzed(AnalysisJob job) {
+        if (job != analysisJob || container.isDisposed()) {
+            return;
+        }
+
+        IJavaElement element = pendingElement;
+        analysisJob = null;
+        pendingElement = null;
+
+        TreeNode tree = job.getTree();
+        if (tree == null) {
+            reset();
+            return;
+        }
+
+        if (!job.isWorkspace()) {
+            treeCache.put(job.getProject(), tree);
+        }
+        treeViewer.setInput(tree);
+        reveal(tree, element);
+    }
+
+    private void changed(JavaModelChanges changes) {
+        if (container.isDisposed()) {
+            return;
+        }
+
+        changes.getRebuiltProjects().forEach(conceptIndex::invalidate);
+        treeCache.invalidateIf(changes::isRebuilt);
+        updateCached(changes);
+
+        if (analysisJob != null) {
+            if (analysisJob.isAffectedBy(changes)) {
+                if (analysisJob.isWorkspace()) {
+                    analyzeWorkspace(pendingElement);
+                } else {
+                    analyze(analysisJob.getProject(), pendingElement);
+                }
+            }
+            return;
+        }
+
+        if (workspace) {
+            changedWorkspace(changes);
+            return;
+        }
+
+        displayedProject().ifPresent(p -> {
+            if (changes.isRebuilt(p)) {
+                if (p.exists()) {
+                    analyze(p, p);
+                } else {
+                    reset();
+                }
+                return;
+            }
+
+            // changes of other projects may affect the subtypes of their types in the displayed one
+            Set<IJavaElement> elements = changes.getChangedElements();
+            if (!elements.isEmpty()) {
+                updateJob.update(elements, changes.getTypesWithChangedSupertypes(), Set.of(p));
+            }
+        });
+    }
+
+    // cached trees are kept up to date like the displayed one, besides their changed units the subtypes of changed
+    // types of other projects are analyzed again
+    private void updateCached(JavaModelChanges changes) {
+        Set<IJavaElement> elements = changes.getChangedElements();
+        Set<IJavaProject> projects = treeCache.getProjects();
+        if (!elements.isEmpty() && !projects.isEmpty()) {
+            updateJob.update(elements, changes.getTypesWithChangedSupertypes(), projects);
+        }
+    }
+
+    private void changedWorkspace(JavaModelChanges changes) {
+        if (!(treeViewer.getInput() instanceof TreeNode)) {
+            return;
+        }
+
+        // rebuilt projects are analyzed again as a whole, which also adds or removes them from the workspace tree
+        Set<IJavaProject> projects = new HashSet<>(workspaceProjects());
+        projects.addAll(displayedProjects());
+
+        Set<IJavaElement> elements = changes.getChangedElements();
+        projects.stream().filter(changes::isRebuilt).forEach(elements::add);
+
+        if (!elements.isEmpty()) {
+            updateJob.update(elements, changes.getTypesWithChangedSupertypes(), projects);
+        }
+    }
+
+    private void updated(Map<IJavaElement, Optional<TreeNode>> analyzed) {
+        if (container.isDisposed()) {
+            return;
+        }
+
+        Object input = treeViewer.getInput();
+        boolean updatable = workspace && input instanceof TreeNode;
+        Optional<IJavaProject> displayed = displayedProject();
+        analyzed.forEach((e, n) -> {
+            IJavaProject project = e.getJavaProject();
+            boolean shown = updatable || displayed.filter(project::equals).isPresent();
+            if (shown) {
+                treeUpdater.update((TreeNode) input, e, n);
+            }
+            // the tree of a displayed project is its cached tree, other trees need their own copy of the replacement
+            treeCache.get(project) //
+                .filter(t -> t != input) //
+                .ifPresent(t -> treeUpdater.update(t, e, shown ? n.map(TreeNode::copy) : n));
+        });
+
+        if (updatable || displayed.isPresent()) {
+            updateStatusLine((TreeNode) treeViewer.getInput());
+        }
+    }
+
+    private void loaded(TreeNode node) {
+        if (!container.isDisposed() && treeViewer.getInput() instanceof TreeNode) {
+            updateStatusLine((TreeNode) treeViewer.getInput());
+        }
+    }
+
+    private void export() {
+        List<IJavaProject> projects = displayedProjects().stream() //
+            .sorted(comparing(IJavaElement::getElementName)) //
+            .collect(toList());
+        if (projects.isEmpty()) {
+            MessageDialog.openInformation(getSite().getShell(), "Export",
+                    "Please wait until a Java project has been analyzed to export its concepts.");
+            return;
+        }
+
+        FileDialog dialog = new FileDialog(getSite().getShell(), SAVE);
+        dialog.setFilterExtensions(ConceptReport.FORMATS.stream().map(f -> "*." + f).toArray(String[]::new));
+        dialog.setFileName((workspace ? "workspace" : projects.get(0).getElementName()) + "."
+                + ConceptReport.FORMATS.get(0));
+        dialog.setOverwrite(true);
+
+        String file = dialog.open();
+        if (file == null) {
+            return;
+        }
+
+        // a file name without one of the extensions is written in the format of the selected filter
+        String format = ConceptReport.formatOf(file) //
+            .orElse(ConceptReport.FORMATS.get(Math.max(0, dialog.getFilterIndex())));
+        new ExportJob(treeFactory, projects, format, Path.of(file)).schedule();
+    }
+
+    private List<IJavaProject> workspaceProjects() {
+        Stream<IJavaProject> projects = stream(getJavaProjects(JavaCore.create(getWorkspace().getRoot())));
+
+        IWorkingSet workingSet = getSite().getPage().getAggregateWorkingSet();
+        if (workingSet != null && !workingSet.isEmpty()) {
+            Set<IProject> selected = stream(workingSet.getElements()) //
+                .map(e -> e.getAdapter(IResource.class)) //
+                .filter(Objects::nonNull) //
+                .map(IResource::getProject) //
+                .collect(toSet());
+            projects = projects.filter(p -> selected.contains(p.getProject()));
+        }
+
+        return projects.collect(toList());
+    }
+
+    private Set<IJavaProject> displayedProjects() {
+        return Optional.ofNullable(treeViewer.getInput()) //
+            .filter(TreeNode.class::isInstance) //
+            .map(TreeNode.class::cast) //
+            .map(t -> t.getChildren().stream() //
+                .map(TreeNode::getSource) //
+                .filter(IJavaProject.class::isInstance) //
+                .map(IJavaProject.class::cast) //
+                .collect(toSet())) //
+            .orElse(Set.of());
+    }
+
+    private Optional<IJavaProject> displayedProject() {
+        return Optional.ofNullable(treeViewer.getInput()) //
+            .filter(TreeNode.class::isInstance) //
+            .map(TreeNode.class::cast) //
+            .flatMap(t -> t.getChildren().stream().findFirst()) //
+            .map(TreeNode::getSource) //
+            .filter(IJavaProject.class::isInstance) //
+            .map(IJavaProject.class::cast);
+    }
+
+    private void cancelAnalysis() {
+        if (analysisJob != null) {
+            analysisJob.cancel();
+            analysisJob = null;
+            pendingElement = null;
+        }
+    }
+
+    private void reveal(TreeNode tree, IJavaElement element) {
+        revealedElement = element;
+        Optional<TreeNode> treeNode = Optional.ofNullable(element).flatMap(e -> tree.findNode(e, false));
+        treeNode.filter(n -> !isSelected(n)).ifPresent(n -> {
+            treeViewer.expandToLevel(n, 0);
+            treeViewer.setSelection(new StructuredSelection(n), true);
+        });
+
+        // elements of packages which were not loaded yet are revealed once a job has loaded the package, unless
+        // another element has been revealed in the meantime
+        if (treeNode.isEmpty() && element != null) {
+            tree.findUnloadedAncestor(element).ifPresent(a -> contentProvider.load(a, () -> {
+                if (element.equals(revealedElement) && treeViewer.getInput() == tree) {
+                    reveal(tree, element);
+                }
+            }));
+        }
+
+        // updates and lazy loads change the counts of the same tree
+        if (tree != statusLineTree || tree.getModifications() != statusLineModifications) {
+            updateStatusLine(tree);
+        }
+        show(treeViewer.getControl());
+    }
+
+    private boolean isSelected(TreeNode node) {
+        IStructuredSelection selection = treeViewer.getStructuredSelection();
+        return selection.size() == 1 && selection.getFirstElement() == node;
+    }
+
     private void createControls(Composite parent) {
         container = new Composite(parent, NONE);
         container.setLayoutData(new GridData(FILL_BOTH));
@@ -119,11 +463,14 @@ public class ExplorerView extends ViewPart {
         label.setText("Please select a Java project or a file contained in it to have this project analyzed.");
 
         treeViewer = new TreeViewer(container, MULTI | H_SCROLL | V_SCROLL);
-        treeViewer.setContentProvider(new ExplorerContentProvider());
+        contentProvider = new ExplorerContentProvider(this::loaded);
+        treeViewer.setContentProvider(contentProvider);
         treeViewer.setLabelProvider(new ExplorerLabelProvider(imageProvider));
         treeViewer.addDoubleClickListener(new ExplorerDoubleClickListener());
         treeViewer.setComparator(new ExplorerComparator());
         treeViewer.setUseHashlookup(true);
+        treeUpdater = new TreeUpdater(treeViewer);
+        updateJob = new UpdateJob(treeFactory, a -> asyncExec(() -> updated(a)));
         getSite().setSelectionProvider(treeViewer);
 
         show(label);
@@ -132,12 +479,17 @@ public class ExplorerView extends ViewPart {
     private void initializeInteractions(Composite parent) {
         IActionBars actionBars = getViewSite().getActionBars();
         Action collapseAllAction = explorerActions.collapseAllAction(treeViewer);
+        Action showWorkspaceAction = explorerActions.showWorkspaceAction(this::showWorkspace);
+        Action exportAction = explorerActions.exportAction(this::export);
 
         IToolBarManager toolbarManager = actionBars.getToolBarManager();
+        toolbarManager.add(showWorkspaceAction);
         toolbarManager.add(collapseAllAction);
 
         IMenuManager menuManager = actionBars.getMenuManager();
+        menuManager.add(showWorkspaceAction);
         menuManager.add(collapseAllAction);
+        menuManager.add(exportAction);
 
         actionBars.updateActionBars();
 
@@ -171,6 +523,8 @@ public class ExplorerView extends ViewPart {
     private void updateStatusLine(TreeNode tree) {
         IActionBars actionBars = getViewSite().getActionBars();
         IStatusLineManager statusLineManager = actionBars.getStatusLineManager();
+        statusLineTree = tree;
+        statusLineModifications = tree != null ? tree.getModifications() : 0;
         if (tree != null) {
             statusLineManager.setMessage(new StatusLineMessageBuilder(tree).build());
         } else {
@@ -180,17 +534,41 @@ public class ExplorerView extends ViewPart {
     }
 
     private void show(Control control) {
-        ((StackLayout) container.getLayout()).topControl = control;
-        container.layout();
+        StackLayout layout = (StackLayout) container.getLayout();
+        if (layout.topControl != control) {
+            layout.topControl = control;
+            container.layout();
+        }
     }
 
     private void registerSelectionListener() {
-        selectionListener = new ExplorerSelectionListener(this);
+        selectionListener = new ExplorerSelectionListener(this, display);
         getSite().getWorkbenchWindow().getSelectionService().addSelectionListener(selectionListener);
     }
 
     private void deregisterSelectionListener() {
         getSite().getWorkbenchWindow().getSelectionService().removeSelectionListener(selectionListener);
+        selectionListener.dispose();
+    }
+
+    private void registerElementChangedListener() {
+        elementChangedListener = event -> {
+            JavaModelChanges changes = JavaModelChanges.of(event.getDelta());
+            if (!changes.isEmpty()) {
+                asyncExec(() -> changed(changes));
+            }
+        };
+        JavaCore.addElementChangedListener(elementChangedListener, ElementChangedEvent.POST_CHANGE);
+    }
+
+    private void deregisterElementChangedListener() {
+        JavaCore.removeElementChangedListener(elementChangedListener);
+    }
+
+    private void asyncExec(Runnable runnable) {
+        if (!display.isDisposed()) {
+            display.asyncExec(runnable);
+        }
     }
 
     private static class StatusLineMessageBuilder {
@@ -202,15 +580,17 @@ public class ExplorerView extends ViewPart {
         }
 
         String build() {
-            TreeNode node = tree.getChildren().iterator().next();
+            // a workspace tree summarizes all of its projects
+            TreeNode node = tree.getChildren().size() == 1 ? tree.getChildren().get(0) : tree;
+            String name = node.getSource() != null ? node.getSource().getElementName() : "Workspace";
             Concepts concepts = node.collectConcepts();
-            int conceptCount = concepts.get().size();
+            int conceptCount = concepts.size();
 
-            StringBuilder sb = new StringBuilder(node.getSource().getElementName()).append(" [expresses ");
+            StringBuilder sb = new StringBuilder(name).append(" [expresses ");
             if (conceptCount == 0) {
                 sb.append("no concepts]");
             } else {
-                int categoryCount = concepts.getCategories().size();
+                int categoryCount = concepts.countCategories();
                 sb.append(conceptCount) //
                     .append(" concept") //
                     .append(conceptCount == 1 ? "" : "s") //
@@ -220,6 +600,15 @@ public class ExplorerView extends ViewPart {
                     .append(categoryCount == 1 ? "y" : "ies") //
                     .append("]");
             }
+
+            // the concepts of lazily created packages are only counted once they have been loaded
+            int unloaded = node.countUnloaded();
+            if (unloaded > 0) {
+                sb.append(" (") //
+                    .append(unloaded) //
+                    .append(unloaded == 1 ? " package" : " packages") //
+                    .append(" not loaded yet)");
+            }
             return sb.toString();
         }
     }
@@ -0,0 +1,97 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import static org.eclipse.core.runtime.IStatus.ERROR;
+import static org.eclipse.core.runtime.Status.CANCEL_STATUS;
+import static org.eclipse.core.runtime.Status.OK_STATUS;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.QUALIFIER;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaProject;
+
+class ExportJob extends Job {
+
+    private final TreeFactory treeFactory;
+    private final List<IJavaProject> projects;
+    private final String format;
+    private final Path file;
+
+    ExportJob(TreeFactory treeFactory, Collection<IJavaProject> projects, String format, Path file) {
+        super("Exporting jMolecules concepts to " + file.getFileName());
+        this.treeFactory = treeFactory;
+        this.projects = List.copyOf(projects);
+        this.format = format;
+        this.file = file;
+        setUser(true);
+        setPriority(LONG);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, getName(), projects.size());
+
+        // the analysis feeds the report directly, which is encoded into the file channel through a fixed buffer
+        try (FileChannel channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE);
+                Writer writer = new BufferedWriter(Channels.newWriter(channel, UTF_8))) {
+            ConceptReport report = ConceptReport.create(format, writer);
+            report.start();
+            for (IJavaProject project : projects) {
+                long start = System.nanoTime();
+                treeFactory.analyze(project, report::report, subMonitor.split(1));
+                report.reported(project.getElementName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            report.finish();
+        } catch (OperationCanceledException e) {
+            delete();
+            return CANCEL_STATUS;
+        } catch (IOException | RuntimeException e) {
+            delete();
+            return new Status(ERROR, QUALIFIER, "Could not export jMolecules concepts to " + file, e);
+        }
+        return OK_STATUS;
+    }
+
+    // an incomplete export is not left behind
+    private void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the error or cancellation reported already explains the remaining file
+        }
+    }
+}
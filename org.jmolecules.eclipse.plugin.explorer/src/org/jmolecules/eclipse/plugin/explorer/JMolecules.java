@@ -15,50 +15,160 @@
  */
 package org.jmolecules.eclipse.plugin.explorer;
 
+import static java.lang.Long.bitCount;
+import static java.lang.Long.numberOfTrailingZeros;
 import static java.util.Arrays.stream;
 import static java.util.Collections.unmodifiableList;
-import static java.util.List.copyOf;
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
+import static java.util.Collections.unmodifiableSet;
 
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.AnnotationBasedConcept.Target.ANNOTATION;
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.AnnotationBasedConcept.Target.FIELD;
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.AnnotationBasedConcept.Target.METHOD;
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.AnnotationBasedConcept.Target.PACKAGE;
+import static org.jmolecules.eclipse.plugin.explorer.JMolecules.AnnotationBasedConcept.Target.TYPE;
 import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.CQRS_ARCHITECTURE;
 import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.DDD;
 import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.EVENTS;
 import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.LAYERED_ARCHITECTURE;
 import static org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category.ONION_ARCHITECTURE;
 import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getAnnotations;
-import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getImports;
 import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isAnnotation;
-import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.supertypeHierarchy;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IAnnotatable;
 import org.eclipse.jdt.core.IAnnotation;
-import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IField;
-import org.eclipse.jdt.core.IImportDeclaration;
 import org.eclipse.jdt.core.IJavaElement;
-import org.eclipse.jdt.core.IMethod;
-import org.eclipse.jdt.core.IPackageDeclaration;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.ITypeHierarchy;
 import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept.Category;
 
 class JMolecules {
 
+    // concepts are stateless, so a single set of instances is shared and their positions serve as bit indexes
+    private static final List<Concept> CONCEPTS = init();
+    private static final Map<Concept, Integer> ORDINALS = ordinals();
+    private static final long ALL = (1L << CONCEPTS.size()) - 1;
+
     private final List<Concept> concepts;
 
+    private final Map<Integer, Set<Concept>> conceptsByElementType = new HashMap<>();
+    private final Map<String, List<Concept>> conceptsByAnnotation = new HashMap<>();
+    private final Map<String, List<Concept>> conceptsByInterface = new HashMap<>();
+
     public JMolecules() {
-        concepts = init();
+        concepts = CONCEPTS;
+        concepts.forEach(this::index);
+    }
+
+    List<Concept> getConcepts() {
+        return unmodifiableList(concepts);
+    }
+
+    Set<String> getAnnotationNames() {
+        return unmodifiableSet(conceptsByAnnotation.keySet());
+    }
+
+    Set<String> getInterfaceNames() {
+        return unmodifiableSet(conceptsByInterface.keySet());
+    }
+
+    AnalysisContext createContext(IProgressMonitor monitor) {
+        return new AnalysisContext(conceptsByAnnotation.keySet(), monitor);
+    }
+
+    AnalysisContext createContext(Set<IJavaElement> candidates, IProgressMonitor monitor) {
+        return new AnalysisContext(conceptsByAnnotation.keySet(), candidates, monitor);
+    }
+
+    AnalysisContext createContext(AnalysisContext shared, Set<IJavaElement> candidates) {
+        return new AnalysisContext(shared, candidates);
+    }
+
+    <T extends IJavaElement> Concepts expresses(T source, AnalysisContext context) {
+        Set<Concept> candidates = conceptsByElementType.getOrDefault(source.getElementType(), Set.of());
+        if (candidates.isEmpty()) {
+            return Concepts.empty();
+        }
+
+        return Concepts.of(candidates(source, context) //
+            .filter(candidates::contains) //
+            .distinct() //
+            .filter(c -> c.test(source, context)) //
+            .mapToLong(Concepts::bit) //
+            .reduce(0, (a, b) -> a | b));
+    }
+
+    Concepts expresses(int elementType, boolean annotationType, Set<String> annotations, Set<String> interfaces) {
+        Set<Concept> candidates = conceptsByElementType.getOrDefault(elementType, Set.of());
+        if (candidates.isEmpty() || (annotations.isEmpty() && interfaces.isEmpty())) {
+            return Concepts.empty();
+        }
+
+        // mirrors the concepts' predicates, which are expressed by isAnnotating and isImplementing
+        Stream<Concept> annotated = annotations.stream() //
+            .flatMap(n -> conceptsByAnnotation.getOrDefault(n, List.of()).stream()) //
+            .filter(c -> ((AnnotationBasedConcept) c).getAnnotationTargets().stream() //
+                .anyMatch(t -> t.accepts(elementType, annotationType)));
+
+        Stream<Concept> implementing = Stream.empty();
+        if (elementType == IJavaElement.TYPE) {
+            implementing = interfaces.stream() //
+                .flatMap(i -> conceptsByInterface.getOrDefault(i, List.of()).stream());
+        }
+
+        return Concepts.of(Stream.concat(annotated, implementing) //
+            .filter(candidates::contains) //
+            .mapToLong(Concepts::bit) //
+            .reduce(0, (a, b) -> a | b));
+    }
+
+    private Stream<Concept> candidates(IJavaElement source, AnalysisContext context) {
+        Stream<Concept> annotated = Stream.empty();
+        if (source instanceof IAnnotatable) {
+            annotated = stream(getAnnotations((IAnnotatable) source)) //
+                .map(context::resolveAnnotation) //
+                .flatMap(n -> conceptsByAnnotation.getOrDefault(n, List.of()).stream());
+        }
+
+        Stream<Concept> implementing = Stream.empty();
+        if (source instanceof IType) {
+            implementing = context.getInterfaces((IType) source).stream() //
+                .flatMap(i -> conceptsByInterface.getOrDefault(i, List.of()).stream());
+        }
+
+        return Stream.concat(annotated, implementing);
+    }
+
+    private void index(Concept concept) {
+        if (concept instanceof AnnotationBasedConcept) {
+            AnnotationBasedConcept annotationBased = (AnnotationBasedConcept) concept;
+
+            annotationBased.getAnnotationTargets().forEach(t -> indexByElementType(t.getElementType(), concept));
+            conceptsByAnnotation.computeIfAbsent(annotationBased.getAnnotation(), k -> new ArrayList<>()).add(concept);
+        }
+
+        if (concept instanceof TypeBasedConcept) {
+            TypeBasedConcept typeBased = (TypeBasedConcept) concept;
+
+            indexByElementType(IJavaElement.TYPE, concept);
+            conceptsByInterface.computeIfAbsent(typeBased.getInterface(), k -> new ArrayList<>()).add(concept);
+        }
     }
 
-    <T extends IJavaElement> Concepts expresses(T source) {
-        return new Concepts(concepts.stream().filter(c -> c.test(source)).collect(toList()));
+    private void indexByElementType(int elementType, Concept concept) {
+        conceptsByElementType.computeIfAbsent(elementType, k -> new HashSet<>()).add(concept);
     }
 
     private static List<Concept> init() {
@@ -103,45 +213,129 @@ class JMolecules {
         concepts.add(new DomainRing());
         concepts.add(new SimplifiedInfrastructureRing());
 
-        return concepts;
+        if (concepts.size() >= Long.SIZE) {
+            throw new IllegalStateException("Concepts are tracked in a 64 bit mask");
+        }
+        return unmodifiableList(concepts);
     }
 
-    static class Concepts {
+    private static Map<Concept, Integer> ordinals() {
+        Map<Concept, Integer> ordinals = new IdentityHashMap<>();
+        for (int i = 0; i < CONCEPTS.size(); i++) {
+            ordinals.put(CONCEPTS.get(i), i);
+        }
+        return ordinals;
+    }
+
+    static final class Concepts {
 
-        private final List<Concept> concepts;
+        private static final Concepts EMPTY = new Concepts(0L);
+        private static final Map<Long, Concepts> INTERNED = new ConcurrentHashMap<>();
+        private static final long[] CATEGORIES = categories();
 
-        Concepts(List<Concept> concepts) {
-            this.concepts = concepts;
+        // a bit per concept, indexed by its position in CONCEPTS, instances are interned and shared by all nodes
+        private final long mask;
+
+        private Concepts(long mask) {
+            this.mask = mask;
         }
 
         List<Concept> get() {
-            return unmodifiableList(concepts);
+            List<Concept> result = new ArrayList<>(size());
+            for (long m = mask; m != 0; m &= m - 1) {
+                result.add(CONCEPTS.get(numberOfTrailingZeros(m)));
+            }
+            return unmodifiableList(result);
         }
 
         Set<Category> getCategories() {
-            return concepts.stream().map(Concept::getCategory).collect(toSet());
+            Set<Category> result = EnumSet.noneOf(Category.class);
+            for (Category category : Category.values()) {
+                if (hasCategory(category)) {
+                    result.add(category);
+                }
+            }
+            return result;
+        }
+
+        long getMask() {
+            return mask;
+        }
+
+        int size() {
+            return bitCount(mask);
+        }
+
+        int countCategories() {
+            int count = 0;
+            for (long category : CATEGORIES) {
+                count += (mask & category) != 0 ? 1 : 0;
+            }
+            return count;
+        }
+
+        boolean hasCategory(Category category) {
+            return (mask & CATEGORIES[category.ordinal()]) != 0;
         }
 
         boolean isEmpty() {
-            return concepts.isEmpty();
+            return mask == 0;
         }
 
         boolean contains(Concept concept) {
-            return concepts.contains(concept);
+            return (mask & bit(concept)) != 0;
+        }
+
+        Concepts merge(Concepts source) {
+            return of(mask | source.mask);
         }
 
         Concepts merge(Concepts... sources) {
-            Set<Concept> collected = new HashSet<>(concepts);
-            stream(sources).forEach(s -> collected.addAll(s.get()));
-            return new Concepts(copyOf(collected));
+            long merged = mask;
+            for (Concepts source : sources) {
+                merged |= source.mask;
+            }
+            return of(merged);
+        }
+
+        static Concepts of(long mask) {
+            if ((mask & ~ALL) != 0) {
+                throw new IllegalArgumentException("Unknown concepts in mask " + Long.toBinaryString(mask));
+            }
+            return mask == 0 ? EMPTY : INTERNED.computeIfAbsent(mask, Concepts::new);
+        }
+
+        static Concepts of(Collection<? extends Concept> concepts) {
+            long mask = 0;
+            for (Concept concept : concepts) {
+                mask |= bit(concept);
+            }
+            return of(mask);
         }
 
         static Concepts empty() {
-            return new Concepts(List.of());
+            return EMPTY;
+        }
+
+        static int capacity() {
+            return CONCEPTS.size();
+        }
+
+        static long bit(Concept concept) {
+            Integer ordinal = ORDINALS.get(concept);
+            return ordinal == null ? 0 : 1L << ordinal;
+        }
+
+        private static long[] categories() {
+            long[] categories = new long[Category.values().length];
+            for (int i = 0; i < CONCEPTS.size(); i++) {
+                categories[CONCEPTS.get(i).getCategory().ordinal()] |= 1L << i;
+            }
+            return categories;
         }
     }
 
-    static interface Concept extends Predicate<IJavaElement>, Comparable<Concept> {
+    static interface Concept extends BiPredicate<IJavaElement, AnalysisContext>, Comparable<Concept> {
 
         @Override
         default int compareTo(Concept other) {
@@ -177,85 +371,61 @@ class JMolecules {
 
     static interface AnnotationBasedConcept extends Concept {
 
-        default boolean isAnnotationAnnotating(IJavaElement source, String fqcn) {
-            if (!(source instanceof IType)) {
-                return false;
-            }
+        String getAnnotation();
 
-            IType type = (IType) source;
-            if (!isAnnotation(type)) {
-                return false;
-            }
-
-            return isAnnotating(type.getCompilationUnit(), type, fqcn);
-        }
+        Set<Target> getAnnotationTargets();
 
-        default boolean isFieldAnnotating(IJavaElement source, String fqcn) {
-            if (!(source instanceof IField)) {
+        default boolean isAnnotating(IJavaElement source, AnalysisContext context) {
+            if (getAnnotationTargets().stream().noneMatch(t -> t.accepts(source))) {
                 return false;
             }
 
-            IField field = (IField) source;
-            return isAnnotating(field.getCompilationUnit(), field, fqcn);
+            IAnnotation[] annotations = getAnnotations((IAnnotatable) source);
+            return stream(annotations).anyMatch(a -> getAnnotation().equals(context.resolveAnnotation(a)));
         }
 
-        default boolean isMethodAnnotating(IJavaElement source, String fqcn) {
-            if (!(source instanceof IMethod)) {
-                return false;
-            }
-
-            IMethod method = (IMethod) source;
-            return isAnnotating(method.getCompilationUnit(), method, fqcn);
-        }
+        enum Target {
 
-        default boolean isPackageAnnotating(IJavaElement source, String fqcn) {
-            if (!(source instanceof IPackageDeclaration)) {
-                return false;
-            }
+                PACKAGE(IJavaElement.PACKAGE_DECLARATION), //
+                TYPE(IJavaElement.TYPE), //
+                ANNOTATION(IJavaElement.TYPE), //
+                FIELD(IJavaElement.FIELD), //
+                METHOD(IJavaElement.METHOD);
 
-            IPackageDeclaration packageDeclaration = (IPackageDeclaration) source;
-            return isAnnotating((ICompilationUnit) packageDeclaration.getParent(), packageDeclaration, fqcn);
-        }
+            private final int elementType;
 
-        default boolean isTypeAnnotating(IJavaElement source, String fqcn) {
-            if (!(source instanceof IType)) {
-                return false;
+            private Target(int elementType) {
+                this.elementType = elementType;
             }
 
-            IType type = (IType) source;
-            return isAnnotating(type.getCompilationUnit(), type, fqcn);
-        }
-
-        private boolean isAnnotating(ICompilationUnit compilationUnit, IAnnotatable annotatable, String fqcn) {
-            IAnnotation[] annotations = getAnnotations(annotatable);
-            if (stream(annotations).anyMatch(a -> a.getElementName().equals(fqcn))) {
-                return true;
+            int getElementType() {
+                return elementType;
             }
 
-            IImportDeclaration[] imports = getImports(compilationUnit);
-            
-            int lastDotIndex = fqcn.lastIndexOf(".");
-            
-            String pckg = fqcn.substring(0, lastDotIndex - 1).concat(".");
-            String name = fqcn.substring(lastDotIndex + 1);
+            boolean accepts(IJavaElement source) {
+                if (source.getElementType() != elementType) {
+                    return false;
+                }
+                return this != ANNOTATION || isAnnotation((IType) source);
+            }
 
-            return stream(imports).anyMatch(i -> i.getElementName().startsWith(pckg))
-                    && (stream(annotations).anyMatch(a -> a.getElementName().equals(name)));
+            boolean accepts(int elementType, boolean annotationType) {
+                return this.elementType == elementType && (this != ANNOTATION || annotationType);
+            }
         }
     }
 
     static interface TypeBasedConcept extends Concept {
 
-        default boolean isTypeImplementing(IJavaElement source, String fqcn) {
+        String getInterface();
+
+        default boolean isImplementing(IJavaElement source, AnalysisContext context) {
             if (!(source instanceof IType)) {
                 return false;
             }
 
             IType type = (IType) source;
-            ITypeHierarchy hierarchy = supertypeHierarchy(type);
-            IType[] interfaces = hierarchy.getAllInterfaces();
-
-            return stream(interfaces).anyMatch(i -> i.getFullyQualifiedName().equals(fqcn));
+            return context.getInterfaces(type).contains(getInterface());
         }
     }
 
@@ -267,9 +437,23 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.ddd.annotation.AggregateRoot")
-                    || isTypeImplementing(source, "org.jmolecules.ddd.types.AggregateRoot");
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.AggregateRoot";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.AggregateRoot";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context) || isImplementing(source, context);
         }
     }
 
@@ -281,8 +465,13 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeImplementing(source, "org.jmolecules.ddd.types.Association");
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.Association";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isImplementing(source, context);
         }
     }
 
@@ -294,9 +483,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.ddd.annotation.BoundedContext";
-            return isPackageAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.BoundedContext";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, ANNOTATION);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -308,9 +506,23 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.ddd.annotation.Entity")
-                    || isTypeImplementing(source, "org.jmolecules.ddd.types.Entity");
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.Entity";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.Entity";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context) || isImplementing(source, context);
         }
     }
 
@@ -322,8 +534,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.ddd.annotation.Factory");
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.Factory";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -335,8 +557,13 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeImplementing(source, "org.jmolecules.ddd.types.Identifiable");
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.Identifiable";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isImplementing(source, context);
         }
     }
 
@@ -348,8 +575,13 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeImplementing(source, "org.jmolecules.ddd.types.Identifier");
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.Identifier";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isImplementing(source, context);
         }
     }
 
@@ -361,9 +593,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.ddd.annotation.Identity";
-            return isFieldAnnotating(source, fqcn) || isMethodAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.Identity";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(ANNOTATION, FIELD, METHOD);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -375,9 +616,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.ddd.annotation.Module";
-            return isPackageAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.Module";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, ANNOTATION);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -389,9 +639,23 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.ddd.annotation.Repository")
-                    || isTypeImplementing(source, "org.jmolecules.ddd.types.Repository");
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.Repository";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.Repository";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context) || isImplementing(source, context);
         }
     }
 
@@ -403,8 +667,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.ddd.annotation.Service");
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.Service";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -416,9 +690,23 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.ddd.annotation.ValueObject")
-                    || isTypeImplementing(source, "org.jmolecules.ddd.types.ValueObject");
+        public String getAnnotation() {
+            return "org.jmolecules.ddd.annotation.ValueObject";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public String getInterface() {
+            return "org.jmolecules.ddd.types.ValueObject";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context) || isImplementing(source, context);
         }
     }
 
@@ -430,9 +718,23 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.event.annotation.DomainEvent")
-                    || isTypeImplementing(source, "org.jmolecules.event.types.DomainEvent");
+        public String getAnnotation() {
+            return "org.jmolecules.event.annotation.DomainEvent";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public String getInterface() {
+            return "org.jmolecules.event.types.DomainEvent";
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context) || isImplementing(source, context);
         }
     }
 
@@ -444,9 +746,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.event.annotation.DomainEventHandler";
-            return isMethodAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.event.annotation.DomainEventHandler";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(ANNOTATION, METHOD);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -458,9 +769,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.event.annotation.DomainEventPublisher";
-            return isMethodAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.event.annotation.DomainEventPublisher";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(ANNOTATION, METHOD);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -472,8 +792,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.architecture.cqrs.annotation.Command");
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.cqrs.annotation.Command";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -485,9 +815,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.cqrs.annotation.CommandDispatcher";
-            return isMethodAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.cqrs.annotation.CommandDispatcher";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(ANNOTATION, METHOD);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -499,9 +838,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.cqrs.annotation.CommandHandler";
-            return isMethodAnnotating(source, fqcn) || isAnnotationAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.cqrs.annotation.CommandHandler";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(ANNOTATION, METHOD);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -513,8 +861,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            return isTypeAnnotating(source, "org.jmolecules.architecture.cqrs.annotation.QueryModel");
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.cqrs.annotation.QueryModel";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -526,9 +884,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.layered.ApplicationLayer";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.layered.ApplicationLayer";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -540,9 +907,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.layered.DomainLayer";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.layered.DomainLayer";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -554,9 +930,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.layered.InfrastructureLayer";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.layered.InfrastructureLayer";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -568,9 +953,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.layered.InterfaceLayer";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.layered.InterfaceLayer";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -582,9 +976,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.classical.ApplicationServiceRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.classical.ApplicationServiceRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -596,9 +999,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.classical.DomainModelRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.classical.DomainModelRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -610,9 +1022,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.classical.DomainServiceRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.classical.DomainServiceRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -629,9 +1050,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.classical.InfrastructureRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.classical.InfrastructureRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -643,9 +1073,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.simplified.ApplicationRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.simplified.ApplicationRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -657,9 +1096,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.simplified.DomainRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.simplified.DomainRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 
@@ -676,9 +1124,18 @@ class JMolecules {
         }
 
         @Override
-        public boolean test(IJavaElement source) {
-            String fqcn = "org.jmolecules.architecture.onion.simplified.InfrastructureRing";
-            return isPackageAnnotating(source, fqcn) || isTypeAnnotating(source, fqcn);
+        public String getAnnotation() {
+            return "org.jmolecules.architecture.onion.simplified.InfrastructureRing";
+        }
+
+        @Override
+        public Set<Target> getAnnotationTargets() {
+            return EnumSet.of(PACKAGE, TYPE);
+        }
+
+        @Override
+        public boolean test(IJavaElement source, AnalysisContext context) {
+            return isAnnotating(source, context);
         }
     }
 }
@@ -0,0 +1,173 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.Collections.unmodifiableSet;
+
+import static org.eclipse.jdt.core.IJavaElementDelta.ADDED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_ADDED_TO_CLASSPATH;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_CLASSPATH_CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_CLOSED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_FINE_GRAINED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_OPENED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_PRIMARY_WORKING_COPY;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+import static org.eclipse.jdt.core.IJavaElementDelta.F_SUPER_TYPES;
+import static org.eclipse.jdt.core.IJavaElementDelta.REMOVED;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.isBinaryRoots;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.getAllTypes;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.isPackageInfo;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+class JavaModelChanges {
+
+    private static final int PROJECT_FLAGS = F_OPENED | F_CLOSED | F_CLASSPATH_CHANGED | F_RESOLVED_CLASSPATH_CHANGED;
+    private static final int ROOT_FLAGS = F_ADDED_TO_CLASSPATH | F_REMOVED_FROM_CLASSPATH;
+
+    private final Set<IJavaProject> rebuiltProjects = new HashSet<>();
+    private final Map<IJavaProject, Set<IJavaElement>> changedElements = new HashMap<>();
+    private final Set<IType> changedSupertypes = new HashSet<>();
+
+    private JavaModelChanges() {
+    }
+
+    static JavaModelChanges of(IJavaElementDelta delta) {
+        JavaModelChanges changes = new JavaModelChanges();
+        changes.visit(delta);
+        return changes;
+    }
+
+    boolean isEmpty() {
+        return rebuiltProjects.isEmpty() && changedElements.isEmpty();
+    }
+
+    boolean affects(IJavaProject project) {
+        return isRebuilt(project) || changedElements.containsKey(project);
+    }
+
+    boolean isRebuilt(IJavaProject project) {
+        return rebuiltProjects.contains(project);
+    }
+
+    Set<IJavaProject> getRebuiltProjects() {
+        return unmodifiableSet(rebuiltProjects);
+    }
+
+    Set<IJavaElement> getChangedElements(IJavaProject project) {
+        return changedElements.getOrDefault(project, Set.of());
+    }
+
+    Set<IJavaElement> getChangedElements() {
+        Set<IJavaElement> elements = new HashSet<>();
+        changedElements.values().forEach(elements::addAll);
+        return elements;
+    }
+
+    // types whose superclass or interfaces may have changed, only their subtypes need to be analyzed again
+    Set<IType> getTypesWithChangedSupertypes() {
+        return unmodifiableSet(changedSupertypes);
+    }
+
+    private void visit(IJavaElementDelta delta) {
+        IJavaElement element = delta.getElement();
+
+        switch (element.getElementType()) {
+            case IJavaElement.JAVA_MODEL:
+                visitChildren(delta);
+                break;
+            case IJavaElement.JAVA_PROJECT:
+                if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & PROJECT_FLAGS) != 0) {
+                    rebuiltProjects.add((IJavaProject) element);
+                } else {
+                    visitChildren(delta);
+                }
+                break;
+            case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+                if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & ROOT_FLAGS) != 0) {
+                    rebuiltProjects.add(element.getJavaProject());
+                } else if (isSource((IPackageFragmentRoot) element)) {
+                    visitChildren(delta);
+                } else if ((delta.getFlags() & F_ARCHIVE_CONTENT_CHANGED) != 0 && isBinaryRoots()) {
+                    // scanned archives are shown as a whole, replaced ones are picked up by analyzing the project again
+                    rebuiltProjects.add(element.getJavaProject());
+                }
+                break;
+            case IJavaElement.PACKAGE_FRAGMENT:
+                if (delta.getKind() == ADDED || delta.getKind() == REMOVED) {
+                    changed(element);
+                } else {
+                    visitChildren(delta);
+                }
+                break;
+            case IJavaElement.COMPILATION_UNIT:
+                if (delta.getFlags() != F_PRIMARY_WORKING_COPY) {
+                    ICompilationUnit unit = (ICompilationUnit) element;
+                    changed(isPackageInfo(unit) ? unit.getParent() : unit);
+                    visitSupertypes(delta);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void visitChildren(IJavaElementDelta delta) {
+        stream(delta.getAffectedChildren()).forEach(this::visit);
+    }
+
+    // saved editors report fine-grained deltas, units changed on disk only tell that their content changed
+    private void visitSupertypes(IJavaElementDelta delta) {
+        if (delta.getKind() == REMOVED) {
+            return;
+        }
+
+        IJavaElement element = delta.getElement();
+        if (element instanceof ICompilationUnit && (delta.getFlags() & F_FINE_GRAINED) == 0) {
+            if (element.exists()) {
+                changedSupertypes.addAll(asList(getAllTypes((ICompilationUnit) element)));
+            }
+            return;
+        }
+
+        if (element instanceof IType && (delta.getKind() == ADDED || (delta.getFlags() & F_SUPER_TYPES) != 0)) {
+            changedSupertypes.add((IType) element);
+        }
+        stream(delta.getAffectedChildren()).forEach(this::visitSupertypes);
+    }
+
+    private void changed(IJavaElement element) {
+        changedElements.computeIfAbsent(element.getJavaProject(), p -> new HashSet<>()).add(element);
+    }
+
+    private static boolean isSource(IPackageFragmentRoot root) {
+        return root.exists() && JavaModelUtils.isSourcePackageFragmentRoot(root);
+    }
+}
@@ -15,21 +15,25 @@
  */
 package org.jmolecules.eclipse.plugin.explorer;
 
+import static org.eclipse.jdt.core.IJavaElement.COMPILATION_UNIT;
 import static org.eclipse.jdt.core.IPackageFragmentRoot.K_SOURCE;
 
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IAnnotatable;
 import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IImportDeclaration;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaModel;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IPackageDeclaration;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IParent;
+import org.eclipse.jdt.core.IRegion;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.JavaModelException;
@@ -49,6 +53,30 @@ final class JavaModelUtils {
         }
     }
 
+    static IClasspathEntry getRawClasspathEntry(IPackageFragmentRoot model) {
+        try {
+            return model.getRawClasspathEntry();
+        } catch (JavaModelException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static IJavaProject[] getJavaProjects(IJavaModel model) {
+        try {
+            return model.getJavaProjects();
+        } catch (JavaModelException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static IType findType(IJavaProject model, String fullyQualifiedName) {
+        try {
+            return model.findType(fullyQualifiedName);
+        } catch (JavaModelException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     static IJavaElement[] getChildren(IParent model) {
         try {
             return model.getChildren();
@@ -81,6 +109,10 @@ final class JavaModelUtils {
         }
     }
 
+    static ICompilationUnit getCompilationUnit(IJavaElement model) {
+        return (ICompilationUnit) model.getAncestor(COMPILATION_UNIT);
+    }
+
     static Integer getFlags(IMember model) {
         try {
             return model.getFlags();
@@ -89,6 +121,14 @@ final class JavaModelUtils {
         }
     }
 
+    static IType[] getAllTypes(ICompilationUnit model) {
+        try {
+            return model.getAllTypes();
+        } catch (JavaModelException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     static IField[] getFields(IType source) {
         try {
             return source.getFields();
@@ -145,10 +185,6 @@ final class JavaModelUtils {
         return PACKAGE_INFO_FILENAME.equals(model.getElementName());
     }
 
-    static ITypeHierarchy supertypeHierarchy(IType model) {
-        return supertypeHierarchy(model, new NullProgressMonitor());
-    }
-
     static ITypeHierarchy supertypeHierarchy(IType model, IProgressMonitor progressMonitor) {
         try {
             return model.newSupertypeHierarchy(progressMonitor);
@@ -156,4 +192,20 @@ final class JavaModelUtils {
             throw new RuntimeException(e);
         }
     }
+
+    static ITypeHierarchy typeHierarchy(IType model, IJavaProject project, IProgressMonitor progressMonitor) {
+        try {
+            return model.newTypeHierarchy(project, progressMonitor);
+        } catch (JavaModelException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static ITypeHierarchy typeHierarchy(IJavaProject model, IRegion region, IProgressMonitor progressMonitor) {
+        try {
+            return model.newTypeHierarchy(region, progressMonitor);
+        } catch (JavaModelException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
@@ -0,0 +1,56 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static org.eclipse.core.runtime.Status.CANCEL_STATUS;
+import static org.eclipse.core.runtime.Status.OK_STATUS;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.jobs.Job;
+
+class LoadJob extends Job {
+
+    private final TreeNode node;
+
+    private volatile List<TreeNode> children;
+
+    LoadJob(TreeNode node) {
+        super("Analyzing " + node.getSource().getElementName());
+        this.node = node;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        List<TreeNode> result = node.loadChildren(monitor);
+        if (monitor.isCanceled()) {
+            return CANCEL_STATUS;
+        }
+
+        children = result;
+        return OK_STATUS;
+    }
+
+    TreeNode getNode() {
+        return node;
+    }
+
+    List<TreeNode> getChildren() {
+        return children;
+    }
+}
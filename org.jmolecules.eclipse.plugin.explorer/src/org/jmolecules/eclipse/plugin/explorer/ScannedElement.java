@@ -0,0 +1,41 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import org.jmolecules.eclipse.plugin.explorer.ElementLabels.ImageKey;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
+
+// concepts and image of an element as found by the scanners or restored from the index, taken from the flags at hand
+// so the viewer never opens an element to paint it
+class ScannedElement {
+
+    private final Concepts concepts;
+    // null for elements whose image does not depend on their flags
+    private final ImageKey imageKey;
+
+    ScannedElement(Concepts concepts, ImageKey imageKey) {
+        this.concepts = concepts;
+        this.imageKey = imageKey;
+    }
+
+    Concepts getConcepts() {
+        return concepts;
+    }
+
+    ImageKey getImageKey() {
+        return imageKey;
+    }
+}
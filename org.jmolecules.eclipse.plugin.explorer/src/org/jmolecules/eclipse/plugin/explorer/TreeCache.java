@@ -0,0 +1,72 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.getCacheSize;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+class TreeCache {
+
+    // rough footprint of a node including its handle, children array, concepts and lookup index entry
+    private static final long ESTIMATED_NODE_SIZE = 256;
+
+    private final Map<IJavaProject, TreeNode> trees = new LinkedHashMap<>(16, 0.75f, true);
+
+    Optional<TreeNode> get(IJavaProject project) {
+        return Optional.ofNullable(trees.get(project));
+    }
+
+    Set<IJavaProject> getProjects() {
+        return Set.copyOf(trees.keySet());
+    }
+
+    void put(IJavaProject project, TreeNode tree) {
+        trees.put(project, tree);
+        evict(project);
+    }
+
+    void invalidateIf(Predicate<IJavaProject> predicate) {
+        trees.keySet().removeIf(predicate);
+    }
+
+    void clear() {
+        trees.clear();
+    }
+
+    // the trees keep their node counts in step with loads and updates, so no nodes are walked to size them
+    private void evict(IJavaProject put) {
+        long budget = getCacheSize() * 1024L * 1024L / ESTIMATED_NODE_SIZE;
+        long size = trees.values().stream().mapToLong(TreeNode::size).sum();
+
+        // the tree which was just put is displayed, it is evicted once another one takes its place
+        Iterator<Map.Entry<IJavaProject, TreeNode>> eldest = trees.entrySet().iterator();
+        while (size > budget && eldest.hasNext()) {
+            Map.Entry<IJavaProject, TreeNode> entry = eldest.next();
+            if (!entry.getKey().equals(put)) {
+                size -= entry.getValue().size();
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -21,14 +21,34 @@ import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.stream.Collectors.*;
 import static java.util.stream.Stream.*;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.getParallelism;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.isAstScan;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.isBinaryRoots;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.isLazy;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.isPrefiltered;
+import static org.jmolecules.eclipse.plugin.explorer.ExplorerPreferences.isProjectHierarchy;
 import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
@@ -38,162 +58,578 @@ import org.eclipse.jdt.core.IPackageDeclaration;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.jmolecules.eclipse.plugin.explorer.ElementLabels.ImageKey;
+import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concept;
 import org.jmolecules.eclipse.plugin.explorer.JMolecules.Concepts;
 
 class TreeFactory {
 
     private final JMolecules jMolecules;
+    private final ConceptIndex index;
+    private final ConceptSearch search;
+    private final ConceptScanner scanner;
+    private final BinaryScanner binaryScanner;
 
-    TreeFactory(JMolecules jMolecules) {
+    TreeFactory(JMolecules jMolecules, ConceptIndex index) {
         this.jMolecules = jMolecules;
+        this.index = index;
+        this.search = new ConceptSearch(jMolecules);
+        this.scanner = new ConceptScanner(jMolecules);
+        this.binaryScanner = new BinaryScanner(jMolecules);
     }
 
-    TreeNode create(IJavaProject project) {
-        List<TreeNode> children = stream(getChildren(project)) //
-            .filter(JavaModelUtils::isSourcePackageFragmentRoot) //
-            .map(IPackageFragmentRoot.class::cast) //
-            .map(this::treeNode) //
+    Optional<TreeNode> create(IJavaElement element, IProgressMonitor monitor) {
+        if (!element.exists()) {
+            return empty();
+        }
+        if (element instanceof IJavaProject) {
+            IJavaProject project = (IJavaProject) element;
+            return of(create(List.of(project), "Analyzing " + project.getElementName(), monitor).get(0));
+        }
+
+        AnalysisContext context = jMolecules.createContext(monitor);
+        try {
+            if (element instanceof IPackageFragment) {
+                return treeNode((IPackageFragment) element, context, monitor);
+            }
+            if (element instanceof ICompilationUnit) {
+                return treeNode((ICompilationUnit) element, context);
+            }
+        } finally {
+            index.save(element.getJavaProject());
+        }
+
+        throw new IllegalArgumentException("Unsupported element " + element.getElementName());
+    }
+
+    TreeNode create(IJavaProject project, IProgressMonitor monitor) {
+        return new TreeNode(create(List.of(project), "Analyzing " + project.getElementName(), monitor));
+    }
+
+    TreeNode create(Collection<IJavaProject> projects, IProgressMonitor monitor) {
+        return new TreeNode(create(projects, "Analyzing workspace", monitor));
+    }
+
+    private List<TreeNode> create(Collection<IJavaProject> projects, String task, IProgressMonitor monitor) {
+        List<ProjectAnalysis> analyses = projects.stream() //
+            .map(ProjectAnalysis::new) //
+            .collect(toList());
+
+        if (isLazy()) {
+            SubMonitor subMonitor = SubMonitor.convert(monitor, task, analyses.size());
+            return analyses.stream() //
+                .map(a -> createLazily(a, subMonitor.split(1))) //
+                .collect(toList());
+        }
+
+        int packageCount = analyses.stream().mapToInt(a -> a.packages.size()).sum();
+        SubMonitor subMonitor = SubMonitor.convert(monitor, task, 2 * packageCount + analyses.size());
+
+        // the projects share resolved supertypes and annotations, their packages are analyzed in a single pool
+        AnalysisContext shared = jMolecules.createContext(monitor);
+        Map<IPackageFragment, AnalysisContext> contexts = new HashMap<>();
+        for (ProjectAnalysis analysis : analyses) {
+            prepare(analysis, shared, subMonitor);
+            analysis.packages.forEach(p -> contexts.put(p, analysis.context));
+        }
+        subMonitor.setWorkRemaining(packageCount + analyses.size());
+
+        List<IPackageFragment> packages = analyses.stream() //
+            .flatMap(a -> a.packages.stream()) //
+            .collect(toList());
+        Map<IPackageFragment, TreeNode> analyzed = analyze(packages, contexts::get, subMonitor);
+
+        return analyses.stream() //
+            .map(a -> treeNode(a, analyzed, subMonitor.split(1))) //
+            .collect(toList());
+    }
+
+    // hands each analyzed package over as its own subtree instead of building the project tree, so the memory held
+    // does not grow with the project, the consumer is called concurrently when packages are analyzed in parallel
+    void analyze(IJavaProject project, Consumer<TreeNode> consumer, IProgressMonitor monitor) {
+        ProjectAnalysis analysis = new ProjectAnalysis(project);
+        int packageCount = analysis.packages.size();
+        SubMonitor subMonitor = SubMonitor.convert(monitor, "Analyzing " + project.getElementName(),
+                2 * packageCount + 2);
+
+        prepare(analysis, jMolecules.createContext(monitor), subMonitor);
+        subMonitor.setWorkRemaining(packageCount + 1);
+
+        analyze(analysis.packages, p -> analysis.context, subMonitor, consumer);
+        binaryRoots(analysis, subMonitor.split(1)).forEach(consumer);
+        save(analysis);
+    }
+
+    private void prepare(ProjectAnalysis analysis, AnalysisContext shared, SubMonitor monitor) {
+        IJavaProject project = analysis.project;
+        Set<IJavaElement> candidates = isPrefiltered() ? search.search(project, monitor.split(1)) : null;
+
+        AnalysisContext context = jMolecules.createContext(shared, candidates);
+        if (isProjectHierarchy()) {
+            context.useProjectHierarchy(project);
+        }
+        if (isAstScan()) {
+            List<ICompilationUnit> units = analysis.packages.stream() //
+                .flatMap(p -> stream(getChildren(p))) //
+                .filter(ICompilationUnit.class::isInstance) //
+                .map(ICompilationUnit.class::cast) //
+                .filter(context::mayContainCandidates) //
+                .filter(u -> index.get(u).isEmpty()) //
+                .collect(toList());
+            context.addScanned(scanner.scan(project, units, context, monitor.split(analysis.packages.size())));
+        }
+        analysis.context = context;
+    }
+
+    private TreeNode treeNode(ProjectAnalysis analysis, Map<IPackageFragment, TreeNode> analyzed,
+            IProgressMonitor monitor) {
+        List<TreeNode> children = analysis.roots.stream() //
+            .map(r -> treeNode(r, analyzed)) //
             .flatMap(Optional::stream) //
             .collect(toList());
+        children.addAll(binaryRoots(analysis, monitor));
+        save(analysis);
 
-        TreeNode root = new TreeNode(children, project);
-        return new TreeNode(List.of(root));
+        return new TreeNode(children, analysis.project);
     }
 
-    private Optional<TreeNode> treeNode(IPackageFragmentRoot source) {
-        List<TreeNode> children = stream(getChildren(source)) //
-            .filter(IPackageFragment.class::isInstance) //
-            .map(IPackageFragment.class::cast) //
-            .map(this::treeNode) //
+    private void save(ProjectAnalysis analysis) {
+        IJavaProject project = analysis.project;
+        index.retain(project, analysis.packages.stream() //
+            .flatMap(p -> stream(getChildren(p))) //
+            .map(IJavaElement::getHandleIdentifier) //
+            .collect(toSet()));
+        index.save(project);
+    }
+
+    private TreeNode createLazily(ProjectAnalysis analysis, IProgressMonitor monitor) {
+        IJavaProject project = analysis.project;
+        SubMonitor subMonitor = SubMonitor.convert(monitor, "Analyzing " + project.getElementName(), 3);
+        Set<IPackageFragment> candidates = search.packages(project, subMonitor.split(1));
+
+        AnalysisContext context = jMolecules.createContext(subMonitor.split(1));
+        Map<IPackageFragment, TreeNode> deferred = analysis.packages.stream() //
+            .filter(candidates::contains) //
+            .collect(toMap(Function.identity(), p -> new TreeNode(p, packageConcepts(p, context), m -> load(p, m))));
+        index.save(project);
+
+        List<TreeNode> children = analysis.roots.stream() //
+            .map(r -> treeNode(r, deferred)) //
             .flatMap(Optional::stream) //
             .collect(toList());
+        children.addAll(binaryRoots(analysis, subMonitor.split(1)));
+
+        return new TreeNode(children, project);
+    }
+
+    private List<TreeNode> binaryRoots(ProjectAnalysis analysis, IProgressMonitor monitor) {
+        if (analysis.binaryRoots.isEmpty()) {
+            return emptyList();
+        }
+
+        return binaryScanner.scan(analysis.binaryRoots, monitor).entrySet().stream() //
+            .map(e -> binaryTreeNode(e.getKey(), e.getValue())) //
+            .flatMap(Optional::stream) //
+            .collect(toList());
+    }
+
+    private List<TreeNode> load(IPackageFragment source, IProgressMonitor monitor) {
+        if (!source.exists()) {
+            return emptyList();
+        }
+
+        List<ICompilationUnit> units = units(source).collect(toList());
+        SubMonitor subMonitor = SubMonitor.convert(monitor, "Analyzing " + source.getElementName(), units.size());
+
+        AnalysisContext context = jMolecules.createContext(monitor);
+        try {
+            return units.stream() //
+                .map(u -> {
+                    subMonitor.split(1);
+                    return treeNode(u, context);
+                }) //
+                .flatMap(Optional::stream) //
+                .collect(toList());
+        } finally {
+            index.save(source.getJavaProject());
+        }
+    }
+
+    private Map<IPackageFragment, TreeNode> analyze(List<IPackageFragment> packages,
+            Function<IPackageFragment, AnalysisContext> contexts, SubMonitor monitor) {
+        Map<IPackageFragment, TreeNode> analyzed = new ConcurrentHashMap<>();
+        analyze(packages, contexts, monitor, n -> analyzed.put((IPackageFragment) n.getSource(), n));
+        return analyzed;
+    }
+
+    private void analyze(List<IPackageFragment> packages, Function<IPackageFragment, AnalysisContext> contexts,
+            SubMonitor monitor, Consumer<TreeNode> consumer) {
+        int parallelism = Math.min(getParallelism(), packages.size());
+        if (parallelism <= 1) {
+            packages.forEach(p -> treeNode(p, contexts.apply(p), monitor.split(1)).ifPresent(consumer));
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> packages.parallelStream() //
+                .map(p -> analyzeConcurrently(p, contexts.apply(p), monitor)) //
+                .flatMap(Optional::stream) //
+                .forEach(consumer)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Optional<TreeNode> analyzeConcurrently(IPackageFragment source, AnalysisContext context, SubMonitor monitor) {
+        // SubMonitor is not thread-safe, workers only check for cancellation and report completed packages
+        Optional<TreeNode> treeNode = treeNode(source, context, context.getMonitor());
+        synchronized (monitor) {
+            monitor.worked(1);
+        }
+        return treeNode;
+    }
+
+    private Optional<TreeNode> treeNode(IPackageFragmentRoot source, Map<IPackageFragment, TreeNode> analyzed) {
+        List<TreeNode> children = packages(source) //
+            .map(analyzed::get) //
+            .filter(Objects::nonNull) //
+            .collect(toList());
 
         return createIf(children, source, Concepts.empty());
     }
 
-    private Optional<TreeNode> treeNode(IPackageFragment source) {
-        IJavaElement[] sourceChildren = getChildren(source);
+    private Optional<TreeNode> treeNode(IPackageFragment source, AnalysisContext context, IProgressMonitor monitor) {
+        List<ICompilationUnit> units = units(source).collect(toList());
 
-        List<TreeNode> children = stream(sourceChildren) //
-            .filter(ICompilationUnit.class::isInstance) //
-            .map(ICompilationUnit.class::cast) //
-            .filter(u -> !isPackageInfo(u)) //
-            .map(this::treeNode) //
+        SubMonitor subMonitor = SubMonitor.convert(monitor, units.size());
+        subMonitor.subTask(source.getElementName());
+
+        List<TreeNode> children = units.stream() //
+            .map(u -> {
+                subMonitor.split(1);
+                return treeNode(u, context);
+            }) //
             .flatMap(Optional::stream) //
             .collect(toList());
 
-        Optional<IPackageDeclaration> declaration = stream(sourceChildren) //
+        return createIf(children, source, packageConcepts(source, context));
+    }
+
+    private Concepts packageConcepts(IPackageFragment source, AnalysisContext context) {
+        return stream(getChildren(source)) //
             .filter(ICompilationUnit.class::isInstance) //
             .map(ICompilationUnit.class::cast) //
             .filter(JavaModelUtils::isPackageInfo) //
-            .limit(1) //
-            .flatMap(u -> stream(getChildren(u))) //
+            .findAny() //
+            .map(u -> packageConcepts(u, context)) //
+            .orElse(Concepts.empty());
+    }
+
+    private Concepts packageConcepts(ICompilationUnit source, AnalysisContext context) {
+        Optional<Map<String, ScannedElement>> indexed = index.get(source);
+        if (indexed.isPresent()) {
+            return indexed.get().values().stream().findAny().map(ScannedElement::getConcepts).orElse(Concepts.empty());
+        }
+        Optional<Map<String, ScannedElement>> scanned = context.getScanned(source);
+        if (scanned.isPresent()) {
+            index.put(source, scanned.get(), Set.of());
+            return scanned.get().values().stream().findAny().map(ScannedElement::getConcepts).orElse(Concepts.empty());
+        }
+        if (!context.mayContainCandidates(source)) {
+            return Concepts.empty();
+        }
+
+        Optional<IPackageDeclaration> declaration = stream(getChildren(source)) //
             .filter(IPackageDeclaration.class::isInstance) //
             .map(IPackageDeclaration.class::cast) //
-            .limit(1) //
             .findAny();
 
-        return createIf(children, source, declaration.map(jMolecules::expresses).orElse(Concepts.empty()));
+        Concepts concepts = declaration.filter(context::isCandidate) //
+            .map(d -> jMolecules.expresses(d, context)) //
+            .orElse(Concepts.empty());
+        index.put(source, declaration.filter(d -> !concepts.isEmpty()) //
+            .map(d -> Map.of(d.getHandleIdentifier(), new ScannedElement(concepts, null))) //
+            .orElse(Map.of()), Set.of());
+
+        return concepts;
     }
 
-    private Optional<TreeNode> treeNode(ICompilationUnit source) {
+    private Optional<TreeNode> treeNode(ICompilationUnit source, AnalysisContext context) {
+        Optional<Map<String, ScannedElement>> indexed = index.get(source);
+        if (indexed.isPresent()) {
+            return treeNode(source, indexed.get());
+        }
+        Optional<Map<String, ScannedElement>> scanned = context.getScanned(source);
+        if (scanned.isPresent()) {
+            index.put(source, scanned.get(), supertypes(source, context));
+            return treeNode(source, scanned.get());
+        }
+        // skipped units are not indexed, a changed supertype may turn them into candidates of a later search
+        if (!context.mayContainCandidates(source)) {
+            return empty();
+        }
+
         List<TreeNode> children = stream(getChildren(source)) //
             .filter(IType.class::isInstance) //
             .map(IType.class::cast) //
-            .map(this::treeNode) //
+            .map(t -> treeNode(t, context)) //
             .flatMap(Optional::stream) //
             .collect(toList());
 
+        Map<String, ScannedElement> indexable = new LinkedHashMap<>();
+        children.forEach(c -> collect(c, indexable));
+        index.put(source, indexable, supertypes(source, context));
+
         return createIf(children, source, Concepts.empty());
     }
 
-    private Optional<TreeNode> treeNode(IType source) {
+    private Optional<TreeNode> treeNode(ICompilationUnit source, Map<String, ScannedElement> indexed) {
+        if (indexed.isEmpty()) {
+            return empty();
+        }
+
+        // entries are stored in pre-order, so every parent has been created before its children
+        Map<IJavaElement, TreeNode> nodes = new HashMap<>();
+        TreeNode root = new TreeNode(emptyList(), source);
+        nodes.put(source, root);
+
+        indexed.forEach((handle, scanned) -> {
+            IJavaElement element = JavaCore.create(handle);
+            TreeNode parent = element != null ? nodes.get(element.getParent()) : null;
+            if (parent != null) {
+                TreeNode node = new TreeNode(emptyList(), element, scanned.getConcepts(), scanned.getImageKey());
+                parent.add(node);
+                nodes.put(element, node);
+            }
+        });
+
+        return of(root);
+    }
+
+    private Optional<TreeNode> binaryTreeNode(IPackageFragmentRoot source, Map<IJavaElement, ScannedElement> scanned) {
+        if (scanned.isEmpty()) {
+            return empty();
+        }
+
+        Map<IJavaElement, TreeNode> nodes = new HashMap<>();
+        TreeNode root = new TreeNode(emptyList(), source);
+        nodes.put(source, root);
+        scanned.keySet().forEach(e -> binaryTreeNode(e, scanned, nodes));
+
+        return of(root);
+    }
+
+    // enclosing packages and class files are created on demand, they may not express concepts themselves
+    private TreeNode binaryTreeNode(IJavaElement element, Map<IJavaElement, ScannedElement> scanned,
+            Map<IJavaElement, TreeNode> nodes) {
+        TreeNode node = nodes.get(element);
+        if (node == null) {
+            TreeNode parent = binaryTreeNode(element.getParent(), scanned, nodes);
+            ScannedElement scannedElement = scanned.get(element);
+            node = scannedElement != null
+                    ? new TreeNode(emptyList(), element, scannedElement.getConcepts(), scannedElement.getImageKey())
+                    : new TreeNode(emptyList(), element);
+            parent.add(node);
+            nodes.put(element, node);
+        }
+        return node;
+    }
+
+    private Optional<TreeNode> treeNode(IType source, AnalysisContext context) {
+        if (!context.mayContainCandidates(source)) {
+            return empty();
+        }
+
         Stream<TreeNode> sourceChildren = stream(getChildren(source)) //
             .filter(IType.class::isInstance) //
             .map(IType.class::cast) //
-            .map(this::treeNode) //
+            .map(t -> treeNode(t, context)) //
             .flatMap(Optional::stream);
 
         Stream<TreeNode> fields = stream(getFields(source)) //
-            .map(this::treeNode) //
+            .map(f -> treeNode(f, context)) //
             .flatMap(Optional::stream);
 
         Stream<TreeNode> methods = stream(getMethods(source)) //
-            .map(this::treeNode) //
+            .map(m -> treeNode(m, context)) //
             .flatMap(Optional::stream);
 
         List<TreeNode> children = concat(sourceChildren, concat(fields, methods)).collect(toList());
-        Concepts concepts = jMolecules.expresses(source);
+        Concepts concepts = context.isCandidate(source) ? jMolecules.expresses(source, context) : Concepts.empty();
 
         return createIf(children, source, concepts);
     }
 
-    private Optional<TreeNode> treeNode(IField source) {
-        return createIf(emptyList(), source, jMolecules.expresses(source));
+    private Optional<TreeNode> treeNode(IField source, AnalysisContext context) {
+        if (!context.isCandidate(source)) {
+            return empty();
+        }
+        return createIf(emptyList(), source, jMolecules.expresses(source, context));
+    }
+
+    private Optional<TreeNode> treeNode(IMethod source, AnalysisContext context) {
+        if (!context.isCandidate(source)) {
+            return empty();
+        }
+        return createIf(emptyList(), source, jMolecules.expresses(source, context));
     }
 
-    private Optional<TreeNode> treeNode(IMethod source) {
-        return createIf(emptyList(), source, jMolecules.expresses(source));
+    // of all types of the unit, those which are no candidates of the search may become candidates when they change
+    private static Set<IType> supertypes(ICompilationUnit source, AnalysisContext context) {
+        return stream(getAllTypes(source)) //
+            .flatMap(t -> context.getSupertypes(t).stream()) //
+            .collect(toSet());
     }
 
+    private static void collect(TreeNode node, Map<String, ScannedElement> indexable) {
+        indexable.put(node.getSource().getHandleIdentifier(),
+                new ScannedElement(node.getConcepts(), node.getImageKey()));
+        node.getChildren().forEach(c -> collect(c, indexable));
+    }
+
+    private static Stream<ICompilationUnit> units(IPackageFragment source) {
+        return stream(getChildren(source)) //
+            .filter(ICompilationUnit.class::isInstance) //
+            .map(ICompilationUnit.class::cast) //
+            .filter(u -> !isPackageInfo(u));
+    }
+
+    private static Stream<IPackageFragment> packages(IPackageFragmentRoot source) {
+        return stream(getChildren(source)) //
+            .filter(IPackageFragment.class::isInstance) //
+            .map(IPackageFragment.class::cast);
+    }
+
+    private static List<IPackageFragmentRoot> binaryRoots(IJavaProject project) {
+        return stream(getChildren(project)) //
+            .filter(BinaryScanner::isScannable) //
+            .map(IPackageFragmentRoot.class::cast) //
+            .collect(toList());
+    }
+
+    // the element has just been read for its concepts, so its flags are at hand for the image as well
     private static Optional<TreeNode> createIf(List<TreeNode> children, IJavaElement source, Concepts concepts) {
         if (children.isEmpty() && concepts.isEmpty()) {
             return empty();
         }
-        return of(new TreeNode(children, source, concepts));
+        return of(new TreeNode(children, source, concepts, ElementLabels.getImageKey(source)));
+    }
+
+    private static class ProjectAnalysis {
+
+        private final IJavaProject project;
+        private final List<IPackageFragmentRoot> roots;
+        private final List<IPackageFragment> packages;
+        private final List<IPackageFragmentRoot> binaryRoots;
+        private AnalysisContext context;
+
+        ProjectAnalysis(IJavaProject project) {
+            this.project = project;
+            this.roots = stream(getChildren(project)) //
+                .filter(JavaModelUtils::isSourcePackageFragmentRoot) //
+                .map(IPackageFragmentRoot.class::cast) //
+                .collect(toList());
+            this.packages = roots.stream() //
+                .flatMap(TreeFactory::packages) //
+                .collect(toList());
+            this.binaryRoots = isBinaryRoots() ? TreeFactory.binaryRoots(project) : List.of();
+        }
     }
 }
 
 class TreeNode {
 
+    private static final TreeNode[] NO_CHILDREN = {};
+
     private TreeNode parent;
-    private final List<TreeNode> children;
+    // trimmed to size once built or loaded, leaves share an empty array
+    private TreeNode[] children;
+    private int childCount;
+    // released once the node is loaded
+    private Function<IProgressMonitor, List<TreeNode>> loader;
+    // only held by the root node, dropped when the tree becomes a subtree of another one
+    private TreeState tree;
 
     private final IJavaElement source;
     private final Concepts concepts;
 
+    // set when the node is created, so painting it never opens the element
+    private final ImageKey imageKey;
+
+    // occurrences of each concept in the subtree by bit index followed by the nodes not loaded yet, maintained on every
+    // structural change and load and only allocated once a descendant expresses a concept or is not loaded yet, until
+    // then the node itself is its rollup
+    private int[] rollup;
+
     TreeNode(List<TreeNode> children) {
-        this(children, null, null);
+        this(children, null, null, null);
     }
 
+    // containers, e.g. projects, packages and units, their images are derived from the handle
     TreeNode(List<TreeNode> children, IJavaElement source) {
-        this(children, source, null);
+        this(children, source, null, ElementLabels.getImageKey(source));
     }
 
-    TreeNode(List<TreeNode> children, IJavaElement source, Concepts concepts) {
-        children.forEach(c -> c.parent = this);
-        this.children = children != null ? children : new ArrayList<>();
+    // members pass the image key derived from the flags at hand, which the scanners and the index provide as well
+    TreeNode(List<TreeNode> children, IJavaElement source, Concepts concepts, ImageKey imageKey) {
+        this.imageKey = imageKey;
+        this.children = children == null || children.isEmpty() ? NO_CHILDREN : children.toArray(NO_CHILDREN);
+        this.childCount = this.children.length;
         this.source = source;
         this.concepts = concepts != null ? concepts : Concepts.empty();
+
+        for (TreeNode child : this.children) {
+            child.parent = this;
+            rollUp(child, 1);
+        }
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(children, source, concepts);
+    TreeNode(IJavaElement source, Concepts concepts, Function<IProgressMonitor, List<TreeNode>> loader) {
+        this(emptyList(), source, concepts, ElementLabels.getImageKey(source));
+        this.loader = loader;
     }
 
-    @Override
-    public boolean equals(Object obj) {
+    Optional<TreeNode> findNode(IJavaElement source) {
+        return findNode(source, true);
+    }
 
-        if (this == obj) {
-            return true;
+    // loads the ancestors of the node on the calling thread if needed, views load them by a job instead
+    Optional<TreeNode> findNode(IJavaElement source, boolean load) {
+        Optional<TreeNode> node = Optional.ofNullable(root().index().get(source)).filter(n -> n.isWithin(this));
+        if (node.isEmpty() && load) {
+            Optional<TreeNode> unloaded = findUnloadedAncestor(source);
+            if (unloaded.isPresent()) {
+                unloaded.get().load();
+                return findNode(source, load);
+            }
         }
+        return node;
+    }
 
-        if (!(obj instanceof TreeNode that)) {
-            return false;
+    // children of nodes which were not loaded yet are not indexed, the closest indexed ancestor has to be loaded first
+    Optional<TreeNode> findUnloadedAncestor(IJavaElement source) {
+        Map<IJavaElement, TreeNode> index = root().index();
+        for (IJavaElement e = source.getParent(); e != null; e = e.getParent()) {
+            TreeNode ancestor = index.get(e);
+            if (ancestor != null) {
+                return Optional.of(ancestor).filter(a -> !a.isLoaded() && a.isWithin(this));
+            }
         }
-
-        return this.children.equals(that.children)
-                && this.source.equals(that.source)
-                && this.concepts.equals(that.concepts);
+        return Optional.empty();
     }
 
-    Optional<TreeNode> findNode(IJavaElement source) {
-        if (source.equals(this.source)) {
-            return Optional.of(this);
-        } else {
-            return children.stream().map(n -> n.findNode(source)).flatMap(Optional::stream).limit(1).findAny();
-        }
+    boolean isLoaded() {
+        return loader == null;
     }
 
     IJavaElement getSource() {
@@ -204,16 +640,43 @@ class TreeNode {
         return concepts;
     }
 
+    // derived from the handle on every call, the label needs no model access and is not worth a field per node
+    String getText() {
+        return source != null ? ElementLabels.getText(source, concepts) : null;
+    }
+
+    ImageKey getImageKey() {
+        return imageKey;
+    }
+
     Concepts collectConcepts() {
-        return concepts.merge(children.stream().map(TreeNode::collectConcepts).collect(toSet()).toArray(new Concepts[0]));
+        if (rollup == null) {
+            return concepts;
+        }
+
+        long mask = 0;
+        for (int i = 0; i < rollup.length - 1; i++) {
+            mask |= rollup[i] != 0 ? 1L << i : 0;
+        }
+        return Concepts.of(mask);
+    }
+
+    int countConcept(Concept concept) {
+        if (rollup == null) {
+            return concepts.contains(concept) ? 1 : 0;
+        }
+
+        long bit = Concepts.bit(concept);
+        return bit == 0 ? 0 : rollup[Long.numberOfTrailingZeros(bit)];
     }
 
     List<TreeNode> getChildren() {
-        return unmodifiableList(children);
+        load();
+        return unmodifiableList(asList(children).subList(0, childCount));
     }
 
     boolean hasChildren() {
-        return !children.isEmpty();
+        return !isLoaded() || childCount > 0;
     }
 
     TreeNode getParent() {
@@ -223,4 +686,228 @@ class TreeNode {
     boolean hasParent() {
         return parent != null;
     }
+
+    // kept by the root once the tree is observed, subtrees are counted
+    int size() {
+        return tree != null ? tree.size : count();
+    }
+
+    void add(TreeNode child) {
+        child.tree = null;
+        child.parent = this;
+        if (childCount == children.length) {
+            children = copyOf(children, childCount + (childCount >> 1) + 1);
+        }
+        children[childCount++] = child;
+        root().indexed(child, true);
+        rollUp(child, 1);
+        root().modified(child, null);
+    }
+
+    void remove(TreeNode child) {
+        int index = indexOf(child);
+        if (index >= 0) {
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+            root().indexed(child, false);
+            rollUp(child, -1);
+            child.parent = null;
+            root().modified(null, child);
+        }
+    }
+
+    void replace(TreeNode child, TreeNode replacement) {
+        int index = indexOf(child);
+        if (index < 0) {
+            add(replacement);
+            return;
+        }
+
+        root().indexed(child, false);
+        rollUp(child, -1);
+        child.parent = null;
+        replacement.tree = null;
+        replacement.parent = this;
+        children[index] = replacement;
+        root().indexed(replacement, true);
+        rollUp(replacement, 1);
+        root().modified(replacement, child);
+    }
+
+    // a node can only be part of one tree, the copy shares handles, concepts and the loader of nodes not loaded yet
+    TreeNode copy() {
+        if (!isLoaded()) {
+            // children added in the meantime are analyzed again when the copy is loaded
+            return new TreeNode(source, concepts, loader);
+        }
+
+        List<TreeNode> copies = new ArrayList<>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            copies.add(children[i].copy());
+        }
+        return new TreeNode(copies, source, concepts, imageKey);
+    }
+
+    // analyzes the children without adding them, so they can be loaded by a job while the node is displayed
+    List<TreeNode> loadChildren(IProgressMonitor monitor) {
+        Function<IProgressMonitor, List<TreeNode>> pending = loader;
+        return pending != null ? pending.apply(monitor) : emptyList();
+    }
+
+    // children loaded in the meantime, e.g. to reveal one of them, are kept
+    void loaded(List<TreeNode> loadedChildren) {
+        if (loader != null) {
+            loader = null;
+            // the ancestors counted the node as not loaded, the node itself did if its rollup is allocated
+            for (TreeNode node = this; node != null; node = node.parent) {
+                if (node.rollup != null) {
+                    node.rollup[node.rollup.length - 1]--;
+                }
+            }
+            loadedChildren.forEach(this::add);
+            if (children.length != childCount) {
+                children = copyOf(children, childCount);
+            }
+            root().modified(null, null);
+        }
+    }
+
+    int getModifications() {
+        return root().state().modifications;
+    }
+
+    int countUnloaded() {
+        if (rollup == null) {
+            return isLoaded() ? 0 : 1;
+        }
+        return rollup[rollup.length - 1];
+    }
+
+    private void load() {
+        if (loader != null) {
+            loaded(loadChildren(new NullProgressMonitor()));
+        }
+    }
+
+    private int count() {
+        int count = 1;
+        for (int i = 0; i < childCount; i++) {
+            count += children[i].count();
+        }
+        return count;
+    }
+
+    private int indexOf(TreeNode child) {
+        for (int i = 0; i < childCount; i++) {
+            if (children[i] == child) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void rollUp(TreeNode child, int sign) {
+        if (child.rollup == null && child.concepts.isEmpty() && child.isLoaded()) {
+            return;
+        }
+
+        for (TreeNode node = this; node != null; node = node.parent) {
+            int[] counts = node.counts();
+            if (child.rollup != null) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += sign * child.rollup[i];
+                }
+            } else {
+                for (long m = child.concepts.getMask(); m != 0; m &= m - 1) {
+                    counts[Long.numberOfTrailingZeros(m)] += sign;
+                }
+                counts[counts.length - 1] += child.isLoaded() ? 0 : sign;
+            }
+        }
+    }
+
+    private int[] counts() {
+        if (rollup == null) {
+            rollup = new int[Concepts.capacity() + 1];
+            for (long m = concepts.getMask(); m != 0; m &= m - 1) {
+                rollup[Long.numberOfTrailingZeros(m)] = 1;
+            }
+            rollup[rollup.length - 1] = isLoaded() ? 0 : 1;
+        }
+        return rollup;
+    }
+
+    private TreeNode root() {
+        TreeNode root = this;
+        while (root.parent != null) {
+            root = root.parent;
+        }
+        return root;
+    }
+
+    private boolean isWithin(TreeNode ancestor) {
+        for (TreeNode n = this; n != null; n = n.parent) {
+            if (n == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TreeState state() {
+        if (tree == null) {
+            tree = new TreeState(count());
+        }
+        return tree;
+    }
+
+    // subtrees are only counted when the size of the tree is kept
+    private void modified(TreeNode added, TreeNode removed) {
+        if (tree != null) {
+            tree.modifications++;
+            tree.size += (added != null ? added.count() : 0) - (removed != null ? removed.count() : 0);
+        }
+    }
+
+    private Map<IJavaElement, TreeNode> index() {
+        TreeState state = state();
+        if (state.index == null) {
+            state.index = new HashMap<>();
+            indexed(this, true);
+        }
+        return state.index;
+    }
+
+    private void indexed(TreeNode node, boolean indexed) {
+        if (tree == null || tree.index == null) {
+            return;
+        }
+
+        if (node.source != null) {
+            if (indexed) {
+                tree.index.put(node.source, node);
+            } else {
+                tree.index.remove(node.source, node);
+            }
+        }
+        // children of nodes which are not loaded yet are indexed when they are added by the loader
+        for (int i = 0; i < node.childCount; i++) {
+            indexed(node.children[i], indexed);
+        }
+    }
+
+    // state of a whole tree, only allocated for the root node once the tree is looked up or observed
+    private static class TreeState {
+
+        // created on the first lookup and kept in step with all later changes
+        private Map<IJavaElement, TreeNode> index;
+        // tells views whether the tree changed since they last rendered it
+        private int modifications;
+        // nodes of the tree, read by the tree cache for every put
+        private int size;
+
+        private TreeState(int size) {
+            this.size = size;
+        }
+    }
 }
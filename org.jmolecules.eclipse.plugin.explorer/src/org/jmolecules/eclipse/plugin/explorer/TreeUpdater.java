@@ -0,0 +1,128 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jface.viewers.TreeViewer;
+
+class TreeUpdater {
+
+    private final TreeViewer treeViewer;
+
+    TreeUpdater(TreeViewer treeViewer) {
+        this.treeViewer = treeViewer;
+    }
+
+    // cached trees which are not displayed are updated the same way, only without touching the viewer
+    void update(TreeNode tree, IJavaElement element, Optional<TreeNode> replacement) {
+        boolean shown = tree == treeViewer.getInput();
+        // nodes which were not loaded yet are analyzed when they are expanded, so they are left alone
+        Optional<TreeNode> existing = tree.findNode(element, false);
+
+        if (existing.isPresent() && replacement.isPresent()) {
+            replace(existing.get(), replacement.get(), shown);
+        } else if (existing.isPresent()) {
+            remove(existing.get(), shown);
+        } else if (replacement.isPresent()) {
+            TreeNode parent = parent(tree, element.getParent(), shown);
+            if (parent.isLoaded()) {
+                add(parent, replacement.get(), shown);
+            }
+        }
+    }
+
+    private void replace(TreeNode node, TreeNode replacement, boolean shown) {
+        if (!shown) {
+            node.getParent().replace(node, replacement);
+            return;
+        }
+
+        Set<IJavaElement> expanded = new HashSet<>();
+        collectExpanded(node, expanded);
+
+        TreeNode parent = node.getParent();
+        parent.replace(node, replacement);
+        treeViewer.remove(node);
+        treeViewer.add(parent, replacement);
+
+        restoreExpanded(replacement, expanded);
+    }
+
+    private void remove(TreeNode node, boolean shown) {
+        TreeNode parent = node.getParent();
+        parent.remove(node);
+
+        if (!parent.hasChildren() && parent.getConcepts().isEmpty() && isPrunable(parent)) {
+            remove(parent, shown);
+        } else if (shown) {
+            treeViewer.remove(node);
+        }
+    }
+
+    private void add(TreeNode parent, TreeNode node, boolean shown) {
+        parent.add(node);
+        if (shown) {
+            treeViewer.add(parent, node);
+        }
+    }
+
+    private TreeNode parent(TreeNode tree, IJavaElement element, boolean shown) {
+        // projects are the top level nodes of a workspace tree
+        if (element.getElementType() == IJavaElement.JAVA_MODEL) {
+            return tree;
+        }
+
+        Optional<TreeNode> existing = tree.findNode(element, false);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        TreeNode parent = parent(tree, element.getParent(), shown);
+        // ancestors of analyzed units are containers, their images need no model access on the UI thread
+        TreeNode node = new TreeNode(new ArrayList<>(), element);
+        add(parent, node, shown);
+        return node;
+    }
+
+    private void collectExpanded(TreeNode node, Set<IJavaElement> expanded) {
+        if (treeViewer.getExpandedState(node)) {
+            expanded.add(node.getSource());
+            // children which are still being loaded are not analyzed on the UI thread
+            if (node.isLoaded()) {
+                node.getChildren().forEach(c -> collectExpanded(c, expanded));
+            }
+        }
+    }
+
+    private void restoreExpanded(TreeNode node, Set<IJavaElement> expanded) {
+        if (expanded.contains(node.getSource())) {
+            treeViewer.setExpandedState(node, true);
+            node.getChildren().forEach(c -> restoreExpanded(c, expanded));
+        }
+    }
+
+    private static boolean isPrunable(TreeNode node) {
+        IJavaElement source = node.getSource();
+        return source instanceof IPackageFragmentRoot || source instanceof IPackageFragment;
+    }
+}
@@ -0,0 +1,135 @@
+/*-
+ * Copyright 2020-2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jmolecules.eclipse.plugin.explorer;
+
+import static java.util.Arrays.stream;
+
+import static org.eclipse.core.runtime.Status.CANCEL_STATUS;
+import static org.eclipse.core.runtime.Status.OK_STATUS;
+import static org.jmolecules.eclipse.plugin.explorer.JavaModelUtils.typeHierarchy;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+
+class UpdateJob extends Job {
+
+    private final TreeFactory treeFactory;
+    private final Consumer<Map<IJavaElement, Optional<TreeNode>>> consumer;
+
+    private final Set<IJavaElement> pending = new HashSet<>();
+    private final Set<IType> pendingSupertypes = new HashSet<>();
+    private final Set<IJavaProject> pendingProjects = new HashSet<>();
+
+    UpdateJob(TreeFactory treeFactory, Consumer<Map<IJavaElement, Optional<TreeNode>>> consumer) {
+        super("Updating jMolecules Explorer");
+        this.treeFactory = treeFactory;
+        this.consumer = consumer;
+        setSystem(true);
+    }
+
+    // changed elements of all projects, only those of the given projects are analyzed again, the others may declare
+    // supertypes of their types
+    void update(Set<IJavaElement> elements, Set<IType> changedSupertypes, Set<IJavaProject> projects) {
+        synchronized (pending) {
+            pending.addAll(elements);
+            pendingSupertypes.addAll(changedSupertypes);
+            pendingProjects.addAll(projects);
+        }
+        schedule();
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        Set<IJavaElement> changed;
+        Set<IType> changedSupertypes;
+        Set<IJavaProject> projects;
+        synchronized (pending) {
+            changed = new HashSet<>(pending);
+            changedSupertypes = new HashSet<>(pendingSupertypes);
+            projects = new HashSet<>(pendingProjects);
+            pending.clear();
+            pendingSupertypes.clear();
+            pendingProjects.clear();
+        }
+
+        SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
+        Set<IJavaElement> elements = new HashSet<>();
+        changed.stream().filter(e -> projects.contains(e.getJavaProject())).forEach(elements::add);
+        elements.addAll(subtypes(changedSupertypes, changed, projects, subMonitor.split(1)));
+
+        subMonitor.setWorkRemaining(elements.size());
+        Map<IJavaElement, Optional<TreeNode>> analyzed = new LinkedHashMap<>();
+        for (IJavaElement element : elements) {
+            // a changed package or project is analyzed completely and already covers its elements
+            if (isCovered(element, elements)) {
+                subMonitor.worked(1);
+                continue;
+            }
+            analyzed.put(element, treeFactory.create(element, subMonitor.split(1)));
+        }
+
+        if (monitor.isCanceled()) {
+            return CANCEL_STATUS;
+        }
+
+        consumer.accept(analyzed);
+        return OK_STATUS;
+    }
+
+    // the interfaces of subtypes change with the supertypes of their supertypes, so their units are analyzed again as
+    // well, the hierarchies only reach into the displayed projects
+    private static Set<ICompilationUnit> subtypes(Set<IType> types, Set<IJavaElement> changed,
+            Set<IJavaProject> projects, IProgressMonitor monitor) {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, types.size() * projects.size());
+        Set<ICompilationUnit> subtypes = new HashSet<>();
+        for (IType type : types) {
+            for (IJavaProject project : projects) {
+                if (!type.exists() || !(project.equals(type.getJavaProject()) || project.isOnClasspath(type))) {
+                    subMonitor.worked(1);
+                    continue;
+                }
+
+                stream(typeHierarchy(type, project, subMonitor.split(1)).getAllSubtypes(type)) //
+                    .filter(t -> !t.isBinary() && project.equals(t.getJavaProject())) //
+                    .map(IType::getCompilationUnit) //
+                    .filter(u -> u != null && !changed.contains(u)) //
+                    .forEach(subtypes::add);
+            }
+        }
+        return subtypes;
+    }
+
+    private static boolean isCovered(IJavaElement element, Set<IJavaElement> elements) {
+        if (element instanceof IJavaProject) {
+            return false;
+        }
+        return elements.contains(element.getJavaProject())
+                || (element instanceof ICompilationUnit && elements.contains(element.getParent()));
+    }
+}